@@ -0,0 +1,545 @@
+// 1. Arrow Batch Source Contract
+/**
+ * Query results delivered as one or more Arrow IPC parts (files, or result chunks of a warehouse
+ * statement), each read batch by batch through an ArrowReader
+ */
+@FunctionalInterface
+public interface ArrowBatchSource {
+    /**
+     * Opens each part in order and hands its reader to the handler. The source closes the readers;
+     * vectors must not be used after the handler returns.
+     */
+    void forEachPart(BufferAllocator allocator, ArrowPartHandler handler) throws IOException;
+
+    @FunctionalInterface
+    interface ArrowPartHandler {
+        void accept(ArrowReader reader) throws IOException;
+    }
+}
+
+// 2. Arrow -> ProductServiceHierarchyRecordDTO Mapper
+/**
+ * Maps Arrow record batches straight to ProductServiceHierarchyRecordDTO: column vectors are
+ * resolved by name once per batch and read by position, so there is no per-cell label lookup or
+ * getString call. Counts accept any integer vector (INT or BIGINT columns); NULL maps to 0.
+ *
+ * Dictionary-encoded string columns are decoded once per batch and shared by all rows. Plain
+ * strings of the repeating columns are interned across batches, like
+ * IndexedRepositoryResponseItemRowMapper. Use one mapper per load; it is not thread-safe.
+ */
+public final class ArrowProductServicesMapper {
+
+    // Stop interning new values past this size (protects against unexpectedly high-cardinality data)
+    private static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+    private final Map<String, String> dictionary = new HashMap<>();
+
+    /**
+     * @return number of rows mapped
+     */
+    public int mapBatch(VectorSchemaRoot root, DictionaryProvider dictionaries,
+                        Consumer<? super ProductServiceHierarchyRecordDTO> consumer) {
+        Map<String, FieldVector> byName = new HashMap<>();
+        for (FieldVector vector : root.getFieldVectors()) {
+            byName.putIfAbsent(vector.getName().toLowerCase(Locale.ROOT), vector);
+        }
+
+        StringColumn parentName = stringColumn(byName, dictionaries, "parent_name", true);
+        StringColumn parentId = stringColumn(byName, dictionaries, "parent_id", true);
+        StringColumn mdmClientGemsId = stringColumn(byName, dictionaries, "mdm_client_gems_id", true);
+        StringColumn mdmCustGemsId = stringColumn(byName, dictionaries, "mdm_cust_gems_id", false);
+        StringColumn segment = stringColumn(byName, dictionaries, "segment", true);
+        StringColumn region = stringColumn(byName, dictionaries, "region", true);
+        StringColumn clientName = stringColumn(byName, dictionaries, "client_name", true);
+        StringColumn customerName = stringColumn(byName, dictionaries, "customer_name", false);
+        StringColumn country = stringColumn(byName, dictionaries, "country", true);
+
+        String[] countColumns = ProductServiceHierarchyRecordRowMapper.COUNT_COLUMNS;
+        BaseIntVector[] countVectors = new BaseIntVector[countColumns.length];
+        for (int col = 0; col < countColumns.length; col++) {
+            FieldVector vector = column(byName, countColumns[col]);
+            if (!(vector instanceof BaseIntVector)) {
+                throw new IllegalStateException("Column '" + countColumns[col] + "' is not an integer column: "
+                    + vector.getField().getType());
+            }
+            countVectors[col] = (BaseIntVector) vector;
+        }
+
+        int rows = root.getRowCount();
+        int[] counts = new int[countColumns.length];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < countVectors.length; col++) {
+                counts[col] = countVectors[col].isNull(row) ? 0 : (int) countVectors[col].getValueAsLong(row);
+            }
+            consumer.accept(ProductServicesSnapshot.newRecord(
+                parentName.get(row), parentId.get(row), mdmClientGemsId.get(row), mdmCustGemsId.get(row),
+                segment.get(row), region.get(row), clientName.get(row), customerName.get(row),
+                counts, 0, country.get(row)));
+        }
+        return rows;
+    }
+
+    @FunctionalInterface
+    private interface StringColumn {
+        String get(int row);
+    }
+
+    private StringColumn stringColumn(Map<String, FieldVector> byName, DictionaryProvider dictionaries,
+                                      String name, boolean interned) {
+        FieldVector vector = column(byName, name);
+        DictionaryEncoding encoding = vector.getField().getDictionary();
+        if (encoding != null) {
+            String[] decoded = decodeDictionary(dictionaries.lookup(encoding.getId()).getVector());
+            BaseIntVector indexes = (BaseIntVector) vector;
+            return row -> indexes.isNull(row) ? null : decoded[(int) indexes.getValueAsLong(row)];
+        }
+        if (vector instanceof VarCharVector) {
+            VarCharVector strings = (VarCharVector) vector;
+            return row -> {
+                if (strings.isNull(row)) {
+                    return null;
+                }
+                String value = new String(strings.get(row), StandardCharsets.UTF_8);
+                return interned ? intern(value) : value;
+            };
+        }
+        // Other representations (e.g. LargeVarChar) - rare enough to go through getObject
+        return row -> {
+            Object value = vector.getObject(row);
+            return value == null ? null : value.toString();
+        };
+    }
+
+    private String[] decodeDictionary(FieldVector values) {
+        String[] decoded = new String[values.getValueCount()];
+        for (int i = 0; i < decoded.length; i++) {
+            Object value = values.getObject(i);
+            decoded[i] = value == null ? null : intern(value.toString());
+        }
+        return decoded;
+    }
+
+    private static FieldVector column(Map<String, FieldVector> byName, String name) {
+        FieldVector vector = byName.get(name.toLowerCase(Locale.ROOT));
+        if (vector == null) {
+            throw new IllegalStateException("Column '" + name + "' not found in Arrow schema " + byName.keySet());
+        }
+        return vector;
+    }
+
+    private String intern(String value) {
+        String existing = dictionary.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        if (dictionary.size() < MAX_DICTIONARY_SIZE) {
+            dictionary.put(value, value);
+        }
+        return value;
+    }
+}
+
+// 3. Local Arrow IPC File Source
+/**
+ * Reads Arrow IPC data from disk, standing in for the warehouse in local runs. The path is either a
+ * single file or a directory whose *.arrow / *.arrows files are read in name order. Both the IPC
+ * file format (ARROW1 magic) and the streaming format are accepted.
+ */
+public class ArrowIpcFileSource implements ArrowBatchSource {
+
+    private static final byte[] FILE_MAGIC = "ARROW1".getBytes(StandardCharsets.US_ASCII);
+
+    private final Path path;
+
+    public ArrowIpcFileSource(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public void forEachPart(BufferAllocator allocator, ArrowPartHandler handler) throws IOException {
+        for (Path part : parts()) {
+            if (isFileFormat(part)) {
+                try (FileChannel channel = FileChannel.open(part, StandardOpenOption.READ);
+                     ArrowFileReader reader = new ArrowFileReader(channel, allocator)) {
+                    handler.accept(reader);
+                }
+            } else {
+                try (InputStream in = new BufferedInputStream(Files.newInputStream(part));
+                     ArrowStreamReader reader = new ArrowStreamReader(in, allocator)) {
+                    handler.accept(reader);
+                }
+            }
+        }
+    }
+
+    private List<Path> parts() throws IOException {
+        if (!Files.isDirectory(path)) {
+            return Collections.singletonList(path);
+        }
+        try (Stream<Path> files = Files.list(path)) {
+            return files
+                .filter(file -> file.toString().endsWith(".arrow") || file.toString().endsWith(".arrows"))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    private static boolean isFileFormat(Path part) throws IOException {
+        byte[] head = new byte[FILE_MAGIC.length];
+        try (InputStream in = Files.newInputStream(part)) {
+            return in.readNBytes(head, 0, head.length) == head.length && Arrays.equals(head, FILE_MAGIC);
+        }
+    }
+}
+
+// 4. Databricks Statement Execution API Source
+/**
+ * Runs a statement through the Databricks SQL Statement Execution API with
+ * format=ARROW_STREAM / disposition=EXTERNAL_LINKS: the warehouse writes the result as Arrow IPC
+ * stream chunks to cloud storage and returns pre-signed links, which are downloaded and read one
+ * chunk at a time. Nothing goes through the JDBC row protocol.
+ *
+ * The statement is cancelled if the load fails or times out, so an abandoned query does not keep
+ * the warehouse busy.
+ */
+public class DatabricksStatementArrowSource implements ArrowBatchSource {
+    private static final Logger logger = LogManager.getLogger(DatabricksStatementArrowSource.class);
+
+    private static final String STATEMENTS_PATH = "/api/2.0/sql/statements/";
+    private static final Set<String> RUNNING_STATES = Set.of("PENDING", "RUNNING");
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+    private final String host;
+    private final String token;
+    private final String warehouseId;
+    private final Supplier<String> statement;
+    private final ObjectMapper objectMapper;
+    private final Duration waitTimeout;
+    private final Duration pollInterval;
+
+    public DatabricksStatementArrowSource(String host, String token, String warehouseId, Supplier<String> statement,
+                                          ObjectMapper objectMapper, Duration waitTimeout, Duration pollInterval) {
+        this.host = host.endsWith("/") ? host.substring(0, host.length() - 1) : host;
+        this.token = token;
+        this.warehouseId = warehouseId;
+        this.statement = statement;
+        this.objectMapper = objectMapper;
+        this.waitTimeout = waitTimeout;
+        this.pollInterval = pollInterval;
+    }
+
+    @Override
+    public void forEachPart(BufferAllocator allocator, ArrowPartHandler handler) throws IOException {
+        JsonNode response = submit();
+        String statementId = response.path("statement_id").asText();
+        boolean completed = false;
+        try {
+            response = awaitCompletion(statementId, response);
+            int chunkCount = response.path("manifest").path("total_chunk_count").asInt(0);
+            JsonNode firstLinks = response.path("result").path("external_links");
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                List<String> links = linksForChunk(firstLinks, chunk);
+                if (links.isEmpty()) {
+                    links = linksForChunk(get(STATEMENTS_PATH + statementId + "/result/chunks/" + chunk)
+                        .path("external_links"), chunk);
+                }
+                for (String link : links) {
+                    try (InputStream in = download(link);
+                         ArrowStreamReader reader = new ArrowStreamReader(in, allocator)) {
+                        handler.accept(reader);
+                    }
+                }
+            }
+            completed = true;
+            logger.info("Read {} Arrow result chunks of statement {}", chunkCount, statementId);
+        } finally {
+            if (!completed) {
+                cancel(statementId);
+            }
+        }
+    }
+
+    private JsonNode submit() throws IOException {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("warehouse_id", warehouseId);
+        body.put("statement", statement.get());
+        body.put("format", "ARROW_STREAM");
+        body.put("disposition", "EXTERNAL_LINKS");
+        // Wait up to 30s inline, then poll
+        body.put("wait_timeout", "30s");
+        body.put("on_wait_timeout", "CONTINUE");
+        return send(authorized(STATEMENTS_PATH)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+            .build());
+    }
+
+    private JsonNode awaitCompletion(String statementId, JsonNode response) throws IOException {
+        long deadline = System.currentTimeMillis() + waitTimeout.toMillis();
+        while (RUNNING_STATES.contains(state(response))) {
+            if (System.currentTimeMillis() >= deadline) {
+                throw new IOException("Statement " + statementId + " did not finish within " + waitTimeout);
+            }
+            try {
+                Thread.sleep(pollInterval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for statement " + statementId);
+            }
+            response = get(STATEMENTS_PATH + statementId);
+        }
+        if (!"SUCCEEDED".equals(state(response))) {
+            throw new IOException("Statement " + statementId + " ended in state " + state(response) + ": "
+                + response.path("status").path("error").path("message").asText(""));
+        }
+        return response;
+    }
+
+    private static String state(JsonNode response) {
+        return response.path("status").path("state").asText();
+    }
+
+    private static List<String> linksForChunk(JsonNode externalLinks, int chunk) {
+        List<String> links = new ArrayList<>();
+        for (JsonNode link : externalLinks) {
+            if (link.path("chunk_index").asInt(-1) == chunk) {
+                links.add(link.path("external_link").asText());
+            }
+        }
+        return links;
+    }
+
+    private JsonNode get(String path) throws IOException {
+        return send(authorized(path).GET().build());
+    }
+
+    private void cancel(String statementId) {
+        try {
+            send(authorized(STATEMENTS_PATH + statementId + "/cancel")
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build());
+        } catch (Exception e) {
+            logger.warn("Could not cancel statement {}: {}", statementId, e.getMessage());
+        }
+    }
+
+    // Pre-signed cloud storage URL - must be fetched WITHOUT the Databricks token
+    private InputStream download(String link) throws IOException {
+        HttpResponse<InputStream> response = execute(HttpRequest.newBuilder(URI.create(link)).GET().build(),
+            HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() >= 300) {
+            response.body().close();
+            throw new IOException("Downloading Arrow result chunk failed with HTTP " + response.statusCode());
+        }
+        return new BufferedInputStream(response.body());
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+        return HttpRequest.newBuilder(URI.create(host + path))
+            .header("Authorization", "Bearer " + token)
+            .timeout(Duration.ofMinutes(1));
+    }
+
+    private JsonNode send(HttpRequest request) throws IOException {
+        HttpResponse<String> response = execute(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IOException("Databricks " + request.method() + " " + request.uri().getPath()
+                + " failed with HTTP " + response.statusCode() + ": " + response.body());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private <T> HttpResponse<T> execute(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException {
+        try {
+            return httpClient.send(request, bodyHandler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during " + request.method() + " " + request.uri().getPath());
+        }
+    }
+}
+
+// 5. Arrow Product Services Loader
+/**
+ * Loads the complete product-services dataset over Arrow instead of JDBC. The source is the
+ * Statement Execution API in deployed environments, or local IPC files
+ * (product.services.arrow.source=ipc) - see ArrowIpcFixtureWriter for producing them.
+ */
+@Repository
+public class ProductServicesArrowLoader {
+    private static final Logger logger = LogManager.getLogger(ProductServicesArrowLoader.class);
+
+    // statement-api | ipc
+    @Value("${product.services.arrow.source:statement-api}")
+    private String sourceType;
+
+    // File or directory of .arrow / .arrows files, for source=ipc
+    @Value("${product.services.arrow.ipc-path:}")
+    private String ipcPath;
+
+    @Value("${product.services.arrow.databricks.host:}")
+    private String host;
+
+    @Value("${product.services.arrow.databricks.token:}")
+    private String token;
+
+    @Value("${product.services.arrow.databricks.warehouse-id:}")
+    private String warehouseId;
+
+    @Value("${product.services.arrow.databricks.wait-timeout:PT10M}")
+    private Duration waitTimeout;
+
+    @Value("${product.services.arrow.databricks.poll-interval:PT1S}")
+    private Duration pollInterval;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ArrowBatchSource source;
+
+    @PostConstruct
+    public void init() {
+        if ("ipc".equalsIgnoreCase(sourceType)) {
+            source = new ArrowIpcFileSource(Paths.get(ipcPath));
+        } else {
+            source = new DatabricksStatementArrowSource(host, token, warehouseId,
+                () -> Utility.SqlWithSchema(ProductAndServicesConstants.PRODUCT_SERVICES_UPDATED),
+                objectMapper, waitTimeout, pollInterval);
+        }
+    }
+
+    public List<ProductServiceHierarchyRecordDTO> loadAll() throws SQLException {
+        List<ProductServiceHierarchyRecordDTO> records = new ArrayList<>();
+        forEachRow(records::add);
+        return records;
+    }
+
+    /**
+     * @return number of rows delivered
+     */
+    public long forEachRow(Consumer<? super ProductServiceHierarchyRecordDTO> consumer) throws SQLException {
+        long startTime = System.currentTimeMillis();
+        ArrowProductServicesMapper mapper = new ArrowProductServicesMapper();
+        long[] rows = {0};
+        long[] batches = {0};
+        try (BufferAllocator allocator = new RootAllocator()) {
+            source.forEachPart(allocator, reader -> {
+                VectorSchemaRoot root = reader.getVectorSchemaRoot();
+                while (reader.loadNextBatch()) {
+                    rows[0] += mapper.mapBatch(root, reader, consumer);
+                    batches[0]++;
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            throw new SQLException("Arrow load of product services failed: " + e.getMessage(), e);
+        }
+        logger.info("Loaded {} product services rows in {} Arrow batches from {} in {}ms",
+            rows[0], batches[0], sourceType, (System.currentTimeMillis() - startTime));
+        return rows[0];
+    }
+}
+
+// 6. Local Fixture Writer
+/**
+ * Writes a synthetic product-services dataset as an Arrow IPC file, to serve as
+ * product.services.arrow.ipc-path for local runs. The read side is covered by ArrowIpcRoundTripTest.
+ *
+ * Usage: java ArrowIpcFixtureWriter <output.arrow> [rows]   (default 400,000 rows)
+ */
+public class ArrowIpcFixtureWriter {
+
+    private static final int BATCH_ROWS = 64 * 1024;
+
+    private static final String[] STRING_COLUMNS = {
+        "parent_name", "parent_id", "mdm_client_gems_id", "mdm_cust_gems_id",
+        "segment", "region", "client_name", "customer_name", "country"
+    };
+
+    public static void main(String[] args) throws IOException {
+        Path output = Paths.get(args[0]);
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : 400_000;
+        List<ProductServiceHierarchyRecordDTO> records = BinarySerializerBenchmark.syntheticDataset(rows);
+
+        long start = System.nanoTime();
+        write(records, output);
+        System.out.println("Wrote " + rows + " rows (" + Files.size(output) / 1024 + " KB) in "
+            + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+    }
+
+    static void write(List<ProductServiceHierarchyRecordDTO> records, Path output) throws IOException {
+        List<Field> fields = new ArrayList<>();
+        for (String name : STRING_COLUMNS) {
+            fields.add(Field.nullable(name, ArrowType.Utf8.INSTANCE));
+        }
+        for (String name : ProductServiceHierarchyRecordRowMapper.COUNT_COLUMNS) {
+            fields.add(Field.nullable(name, new ArrowType.Int(32, true)));
+        }
+
+        int[] counts = new int[ProductServicesSnapshot.COUNT_COLUMNS];
+        try (BufferAllocator allocator = new RootAllocator();
+             VectorSchemaRoot root = VectorSchemaRoot.create(new Schema(fields), allocator);
+             FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                 StandardOpenOption.TRUNCATE_EXISTING);
+             ArrowFileWriter writer = new ArrowFileWriter(root, new DictionaryProvider.MapDictionaryProvider(), channel)) {
+            writer.start();
+            for (int first = 0; first < records.size(); first += BATCH_ROWS) {
+                int batchRows = Math.min(BATCH_ROWS, records.size() - first);
+                root.allocateNew();
+                for (int row = 0; row < batchRows; row++) {
+                    ProductServiceHierarchyRecordDTO record = records.get(first + row);
+                    String[] values = {
+                        record.parentName(), record.parentId(), record.mdmClientGemsId(), record.mdmCustGemsId(),
+                        record.segment(), record.region(), record.clientName(), record.customerName(),
+                        record.country()
+                    };
+                    for (int col = 0; col < values.length; col++) {
+                        VarCharVector vector = (VarCharVector) root.getVector(col);
+                        if (values[col] == null) {
+                            vector.setNull(row);
+                        } else {
+                            vector.setSafe(row, values[col].getBytes(StandardCharsets.UTF_8));
+                        }
+                    }
+                    ProductServicesSnapshot.readCounts(record, counts, 0);
+                    for (int col = 0; col < counts.length; col++) {
+                        ((IntVector) root.getVector(STRING_COLUMNS.length + col)).setSafe(row, counts[col]);
+                    }
+                }
+                root.setRowCount(batchRows);
+                writer.writeBatch();
+            }
+            writer.end();
+        }
+    }
+}
+
+// 7. Dependency and Configuration Example
+/*
+<dependency>
+    <groupId>org.apache.arrow</groupId>
+    <artifactId>arrow-vector</artifactId>
+    <version>15.0.2</version>
+</dependency>
+<dependency>
+    <groupId>org.apache.arrow</groupId>
+    <artifactId>arrow-memory-netty</artifactId>
+    <version>15.0.2</version>
+</dependency>
+
+# JVM flag required by Arrow's off-heap memory on Java 17+
+--add-opens=java.base/java.nio=ALL-UNNAMED
+
+# application.properties
+product.services.arrow.enabled=true                    # takes precedence over partitioned/streaming loads
+product.services.arrow.source=statement-api            # statement-api | ipc
+product.services.arrow.databricks.host=https://<workspace>.cloud.databricks.com
+product.services.arrow.databricks.token=${DATABRICKS_TOKEN}
+product.services.arrow.databricks.warehouse-id=<warehouse id>
+product.services.arrow.databricks.wait-timeout=PT10M
+product.services.arrow.databricks.poll-interval=PT1S
+
+# Local runs: java ArrowIpcFixtureWriter /tmp/product_services.arrow, then
+product.services.arrow.source=ipc
+product.services.arrow.ipc-path=/tmp/product_services.arrow
+*/
@@ -0,0 +1,161 @@
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+class ArrowIpcRoundTripTest {
+
+    private static final String[] SEGMENTS = {"NA", "EMEA"};
+
+    private static final DictionaryEncoding SEGMENT_ENCODING =
+        new DictionaryEncoding(1L, false, new ArrowType.Int(32, true));
+
+    @TempDir
+    Path tempDir;
+
+    private static int[] counts(int base) {
+        int[] counts = new int[ProductServicesSnapshot.COUNT_COLUMNS];
+        for (int col = 0; col < counts.length; col++) {
+            counts[col] = base + col;
+        }
+        return counts;
+    }
+
+    // Row 1 has NULL counts in the even columns; the mapper reads them as 0
+    private static int[] countsWithNulls(int base) {
+        int[] counts = counts(base);
+        for (int col = 0; col < counts.length; col += 2) {
+            counts[col] = 0;
+        }
+        return counts;
+    }
+
+    private static List<ProductServiceHierarchyRecordDTO> expectedRecords() {
+        return List.of(
+            ProductServicesSnapshot.newRecord("Parent 1", "100", "C1", "CU1", "NA", "US",
+                "Client 1", "Customer 1", counts(1), 0, "USA"),
+            ProductServicesSnapshot.newRecord("Parent 1", "100", "C2", null, null, "US",
+                "Client 2", null, countsWithNulls(100), 0, null),
+            ProductServicesSnapshot.newRecord("Parent 2", "200", "C3", "CU3", "EMEA", "GB",
+                "Client 3", "Customer 3", counts(1000), 0, "GBR"));
+    }
+
+    @Test
+    void dictionaryEncodedColumnAndNullCountsSurviveRoundTrip() throws IOException {
+        Path file = tempDir.resolve("product_services.arrow");
+        List<ProductServiceHierarchyRecordDTO> expected = expectedRecords();
+        write(expected, file);
+
+        List<ProductServiceHierarchyRecordDTO> readBack = new ArrayList<>();
+        ArrowProductServicesMapper mapper = new ArrowProductServicesMapper();
+        try (BufferAllocator allocator = new RootAllocator()) {
+            new ArrowIpcFileSource(file).forEachPart(allocator, reader -> {
+                while (reader.loadNextBatch()) {
+                    mapper.mapBatch(reader.getVectorSchemaRoot(), reader, readBack::add);
+                }
+            });
+        }
+
+        Assertions.assertEquals(expected, readBack);
+    }
+
+    /**
+     * Writes the records as one batch: segment dictionary-encoded, the other strings plain, and the
+     * counts of row 1 NULL in the even columns
+     */
+    private static void write(List<ProductServiceHierarchyRecordDTO> records, Path output) throws IOException {
+        List<Field> fields = new ArrayList<>();
+        for (String name : new String[] {"parent_name", "parent_id", "mdm_client_gems_id", "mdm_cust_gems_id"}) {
+            fields.add(Field.nullable(name, ArrowType.Utf8.INSTANCE));
+        }
+        fields.add(new Field("segment", new FieldType(true, new ArrowType.Int(32, true), SEGMENT_ENCODING), null));
+        for (String name : new String[] {"region", "client_name", "customer_name", "country"}) {
+            fields.add(Field.nullable(name, ArrowType.Utf8.INSTANCE));
+        }
+        for (String name : ProductServiceHierarchyRecordRowMapper.COUNT_COLUMNS) {
+            fields.add(Field.nullable(name, new ArrowType.Int(32, true)));
+        }
+
+        int[] counts = new int[ProductServicesSnapshot.COUNT_COLUMNS];
+        try (BufferAllocator allocator = new RootAllocator();
+             VarCharVector segmentValues = new VarCharVector("segment_values", allocator);
+             VectorSchemaRoot root = VectorSchemaRoot.create(new Schema(fields), allocator)) {
+            segmentValues.allocateNew();
+            for (int i = 0; i < SEGMENTS.length; i++) {
+                segmentValues.setSafe(i, SEGMENTS[i].getBytes(StandardCharsets.UTF_8));
+            }
+            segmentValues.setValueCount(SEGMENTS.length);
+            DictionaryProvider.MapDictionaryProvider dictionaries =
+                new DictionaryProvider.MapDictionaryProvider(new Dictionary(segmentValues, SEGMENT_ENCODING));
+
+            root.allocateNew();
+            for (int row = 0; row < records.size(); row++) {
+                ProductServiceHierarchyRecordDTO record = records.get(row);
+                setString(root.getVector("parent_name"), row, record.parentName());
+                setString(root.getVector("parent_id"), row, record.parentId());
+                setString(root.getVector("mdm_client_gems_id"), row, record.mdmClientGemsId());
+                setString(root.getVector("mdm_cust_gems_id"), row, record.mdmCustGemsId());
+                setString(root.getVector("region"), row, record.region());
+                setString(root.getVector("client_name"), row, record.clientName());
+                setString(root.getVector("customer_name"), row, record.customerName());
+                setString(root.getVector("country"), row, record.country());
+
+                IntVector segment = (IntVector) root.getVector("segment");
+                if (record.segment() == null) {
+                    segment.setNull(row);
+                } else {
+                    segment.setSafe(row, List.of(SEGMENTS).indexOf(record.segment()));
+                }
+
+                ProductServicesSnapshot.readCounts(record, counts, 0);
+                for (int col = 0; col < counts.length; col++) {
+                    IntVector vector = (IntVector) root.getVector(ProductServiceHierarchyRecordRowMapper.COUNT_COLUMNS[col]);
+                    if (row == 1 && col % 2 == 0) {
+                        vector.setNull(row);
+                    } else {
+                        vector.setSafe(row, counts[col]);
+                    }
+                }
+            }
+            root.setRowCount(records.size());
+
+            try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING);
+                 ArrowFileWriter writer = new ArrowFileWriter(root, dictionaries, channel)) {
+                writer.start();
+                writer.writeBatch();
+                writer.end();
+            }
+        }
+    }
+
+    private static void setString(FieldVector vector, int row, String value) {
+        VarCharVector strings = (VarCharVector) vector;
+        if (value == null) {
+            strings.setNull(row);
+        } else {
+            strings.setSafe(row, value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
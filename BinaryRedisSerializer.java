@@ -0,0 +1,509 @@
+// 1. Compact Binary Value Serializer for the Redis Caches
+/**
+ * RedisSerializer that writes the large, schema-known cache values in a compact binary form
+ * instead of JSON with @class type metadata:
+ *
+ *   - List<ProductServiceHierarchyRecordDTO> (the complete dataset / filtered results)
+ *   - List<ParentData> (hierarchy results, nested ClientData / CustomerData)
+ *
+ * Layout: MAGIC(2) | FORMAT_VERSION(1) | TYPE(1) | COMPRESSION(1) | [uncompressed length(4)] | body
+ *
+ * Strings go through a per-value string table (repeating segments, regions and names are written
+ * once) and counts are written as varints. Any other value is delegated to the JSON serializer and
+ * stored exactly as before, and values without the magic header are read as JSON, so entries
+ * written by older nodes stay readable during a rollout.
+ *
+ * With writeBinary = false the serializer still reads both formats but writes JSON only - the
+ * reader-only step that has to be deployed everywhere before any node writes binary (JSON-only
+ * nodes cannot read binary entries).
+ */
+public class ProductServicesBinaryRedisSerializer implements RedisSerializer<Object> {
+    private static final Logger logger = LoggerFactory.getLogger(ProductServicesBinaryRedisSerializer.class);
+
+    // 0xB1 can never start a JSON document, so the header cannot be confused with old entries
+    private static final byte MAGIC_0 = (byte) 0xB1;
+    private static final byte MAGIC_1 = (byte) 0x5E;
+    private static final byte FORMAT_VERSION = 1;
+    private static final int HEADER_LENGTH = 5;
+
+    private static final byte TYPE_RECORD_LIST = 1;
+    private static final byte TYPE_PARENT_DATA_LIST = 2;
+
+    public enum Compression {
+        NONE((byte) 0),
+        LZ4((byte) 1);
+
+        final byte id;
+
+        Compression(byte id) {
+            this.id = id;
+        }
+    }
+
+    // Bodies smaller than this are not worth compressing
+    private static final int MIN_COMPRESS_LENGTH = 4096;
+
+    private final RedisSerializer<Object> jsonSerializer;
+    private final Compression compression;
+    private final boolean writeBinary;
+    private final LZ4Compressor lz4Compressor;
+    private final LZ4FastDecompressor lz4Decompressor;
+
+    public ProductServicesBinaryRedisSerializer(RedisSerializer<Object> jsonSerializer, Compression compression) {
+        this(jsonSerializer, compression, true);
+    }
+
+    public ProductServicesBinaryRedisSerializer(RedisSerializer<Object> jsonSerializer, Compression compression,
+                                                boolean writeBinary) {
+        this.jsonSerializer = jsonSerializer;
+        this.compression = compression;
+        this.writeBinary = writeBinary;
+        LZ4Factory lz4Factory = LZ4Factory.fastestInstance();
+        this.lz4Compressor = lz4Factory.fastCompressor();
+        this.lz4Decompressor = lz4Factory.fastDecompressor();
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte type = writeBinary ? typeOf(value) : 0;
+        if (type == 0) {
+            return jsonSerializer.serialize(value);
+        }
+        try {
+            BinaryWriter writer = new BinaryWriter();
+            if (type == TYPE_RECORD_LIST) {
+                writeRecords(writer, (List<?>) value);
+            } else {
+                writeParents(writer, (List<?>) value);
+            }
+            return frame(type, writer.toByteArray());
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Could not write binary cache value", e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes.length < HEADER_LENGTH || bytes[0] != MAGIC_0 || bytes[1] != MAGIC_1) {
+            // Legacy (or non schema-known) JSON entry
+            return jsonSerializer.deserialize(bytes);
+        }
+        if (bytes[2] != FORMAT_VERSION) {
+            throw new SerializationException("Unsupported binary cache format version: " + bytes[2]);
+        }
+        try {
+            BinaryReader reader = new BinaryReader(unframe(bytes));
+            switch (bytes[3]) {
+                case TYPE_RECORD_LIST:
+                    return readRecords(reader);
+                case TYPE_PARENT_DATA_LIST:
+                    return readParents(reader);
+                default:
+                    throw new SerializationException("Unknown binary cache value type: " + bytes[3]);
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Could not read binary cache value", e);
+        }
+    }
+
+    private static byte typeOf(Object value) {
+        if (!(value instanceof List) || ((List<?>) value).isEmpty()) {
+            return 0;
+        }
+        Object first = ((List<?>) value).get(0);
+        if (first instanceof ProductServiceHierarchyRecordDTO) {
+            return TYPE_RECORD_LIST;
+        }
+        if (first instanceof ParentData) {
+            return TYPE_PARENT_DATA_LIST;
+        }
+        return 0;
+    }
+
+    private byte[] frame(byte type, byte[] body) {
+        boolean compress = compression == Compression.LZ4 && body.length >= MIN_COMPRESS_LENGTH;
+        byte[] payload = compress ? lz4Compressor.compress(body) : body;
+
+        ByteBuffer framed = ByteBuffer.allocate(HEADER_LENGTH + (compress ? 4 : 0) + payload.length);
+        framed.put(MAGIC_0).put(MAGIC_1).put(FORMAT_VERSION).put(type)
+            .put(compress ? Compression.LZ4.id : Compression.NONE.id);
+        if (compress) {
+            framed.putInt(body.length);
+        }
+        framed.put(payload);
+        return framed.array();
+    }
+
+    private byte[] unframe(byte[] bytes) {
+        byte compressionId = bytes[4];
+        if (compressionId == Compression.NONE.id) {
+            return Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length);
+        }
+        if (compressionId == Compression.LZ4.id) {
+            int length = ByteBuffer.wrap(bytes, HEADER_LENGTH, 4).getInt();
+            byte[] body = new byte[length];
+            lz4Decompressor.decompress(bytes, HEADER_LENGTH + 4, body, 0, length);
+            return body;
+        }
+        throw new SerializationException("Unknown binary cache compression: " + compressionId);
+    }
+
+    // --- ProductServiceHierarchyRecordDTO lists ---
+
+    private static void writeRecords(BinaryWriter writer, List<?> records) throws IOException {
+        int[] counts = new int[ProductServicesSnapshot.COUNT_COLUMNS];
+        writer.writeVarInt(records.size());
+        for (Object element : records) {
+            ProductServiceHierarchyRecordDTO record = (ProductServiceHierarchyRecordDTO) element;
+            writer.writeString(record.parentName());
+            writer.writeString(record.parentId());
+            writer.writeString(record.mdmClientGemsId());
+            writer.writeString(record.mdmCustGemsId());
+            writer.writeString(record.segment());
+            writer.writeString(record.region());
+            writer.writeString(record.clientName());
+            writer.writeString(record.customerName());
+            writer.writeString(record.country());
+            ProductServicesSnapshot.readCounts(record, counts, 0);
+            for (int count : counts) {
+                writer.writeSignedVarInt(count);
+            }
+        }
+    }
+
+    private static List<ProductServiceHierarchyRecordDTO> readRecords(BinaryReader reader) throws IOException {
+        int size = reader.readVarInt();
+        int[] counts = new int[ProductServicesSnapshot.COUNT_COLUMNS];
+        List<ProductServiceHierarchyRecordDTO> records = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String parentName = reader.readString();
+            String parentId = reader.readString();
+            String mdmClientGemsId = reader.readString();
+            String mdmCustGemsId = reader.readString();
+            String segment = reader.readString();
+            String region = reader.readString();
+            String clientName = reader.readString();
+            String customerName = reader.readString();
+            String country = reader.readString();
+            for (int col = 0; col < counts.length; col++) {
+                counts[col] = reader.readSignedVarInt();
+            }
+            records.add(ProductServicesSnapshot.newRecord(parentName, parentId, mdmClientGemsId, mdmCustGemsId,
+                segment, region, clientName, customerName, counts, 0, country));
+        }
+        return records;
+    }
+
+    // --- ParentData hierarchies ---
+
+    private static void writeParents(BinaryWriter writer, List<?> parents) throws IOException {
+        writer.writeVarInt(parents.size());
+        for (Object element : parents) {
+            ParentData parent = (ParentData) element;
+            writer.writeSignedVarLong(parent.id());
+            writer.writeString(parent.name());
+            writer.writeString(parent.type());
+            writer.writeString(parent.segment());
+            writer.writeString(parent.region());
+            writeCounts(writer, parent.platform(), parent.services(), parent.backOffice(), parent.custody(),
+                parent.digital(), parent.globalMarkets(), parent.middleOffice(), parent.ssga(), parent.treasury());
+
+            writer.writeVarInt(parent.subRows().size());
+            for (ClientData client : parent.subRows()) {
+                writer.writeString(client.id());
+                writer.writeSignedVarLong(client.parentId());
+                writer.writeString(client.name());
+                writer.writeString(client.type());
+                writer.writeString(client.segment());
+                writer.writeString(client.region());
+                writeCounts(writer, client.platform(), client.services(), client.backOffice(), client.custody(),
+                    client.digital(), client.globalMarkets(), client.middleOffice(), client.ssga(), client.treasury());
+
+                writer.writeVarInt(client.subRows().size());
+                for (CustomerData customer : client.subRows()) {
+                    writer.writeString(customer.id());
+                    writer.writeString(customer.parentId());
+                    writer.writeString(customer.name());
+                    writer.writeString(customer.type());
+                    writer.writeString(customer.segment());
+                    writer.writeString(customer.region());
+                    writeCounts(writer, customer.platform(), customer.services(), customer.backOffice(),
+                        customer.custody(), customer.digital(), customer.globalMarkets(), customer.middleOffice(),
+                        customer.ssga(), customer.treasury());
+                    // detailData is always empty for now
+                }
+            }
+        }
+    }
+
+    private static void writeCounts(BinaryWriter writer, int... counts) throws IOException {
+        for (int count : counts) {
+            writer.writeSignedVarInt(count);
+        }
+    }
+
+    private static List<ParentData> readParents(BinaryReader reader) throws IOException {
+        int parentCount = reader.readVarInt();
+        List<ParentData> parents = new ArrayList<>(parentCount);
+        for (int p = 0; p < parentCount; p++) {
+            long id = reader.readSignedVarLong();
+            String name = reader.readString();
+            String type = reader.readString();
+            String segment = reader.readString();
+            String region = reader.readString();
+            int[] c = readCounts(reader);
+
+            int clientCount = reader.readVarInt();
+            List<ClientData> clients = new ArrayList<>(clientCount);
+            for (int cl = 0; cl < clientCount; cl++) {
+                String clientId = reader.readString();
+                long clientParentId = reader.readSignedVarLong();
+                String clientName = reader.readString();
+                String clientType = reader.readString();
+                String clientSegment = reader.readString();
+                String clientRegion = reader.readString();
+                int[] cc = readCounts(reader);
+
+                int customerCount = reader.readVarInt();
+                List<CustomerData> customers = new ArrayList<>(customerCount);
+                for (int cu = 0; cu < customerCount; cu++) {
+                    String customerId = reader.readString();
+                    String customerParentId = reader.readString();
+                    String customerName = reader.readString();
+                    String customerType = reader.readString();
+                    String customerSegment = reader.readString();
+                    String customerRegion = reader.readString();
+                    int[] cuc = readCounts(reader);
+                    customers.add(new CustomerData(customerId, customerParentId, customerName, customerType,
+                        customerSegment, customerRegion, cuc[0], cuc[1], cuc[2], cuc[3], cuc[4], cuc[5], cuc[6],
+                        cuc[7], cuc[8], Collections.emptyList()));
+                }
+                clients.add(new ClientData(clientId, clientParentId, clientName, clientType, clientSegment,
+                    clientRegion, cc[0], cc[1], cc[2], cc[3], cc[4], cc[5], cc[6], cc[7], cc[8], customers));
+            }
+            parents.add(new ParentData(id, name, type, segment, region,
+                c[0], c[1], c[2], c[3], c[4], c[5], c[6], c[7], c[8], clients));
+        }
+        return parents;
+    }
+
+    private static int[] readCounts(BinaryReader reader) throws IOException {
+        int[] counts = new int[9];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = reader.readSignedVarInt();
+        }
+        return counts;
+    }
+
+    // --- Encoding primitives ---
+
+    /**
+     * Strings: 0 = null, 1 = new string (UTF-8 length + bytes) added to the table,
+     * n >= 2 = reference to table entry n - 2
+     */
+    private static final class BinaryWriter {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<String, Integer> stringTable = new HashMap<>();
+
+        void writeString(String value) throws IOException {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            Integer index = stringTable.get(value);
+            if (index != null) {
+                writeVarInt(index + 2);
+                return;
+            }
+            stringTable.put(value, stringTable.size());
+            writeVarInt(1);
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(utf8.length);
+            out.write(utf8);
+        }
+
+        void writeVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte(value);
+        }
+
+        // Zig-zag so small negative values stay short
+        void writeSignedVarInt(int value) throws IOException {
+            writeVarInt((value << 1) ^ (value >> 31));
+        }
+
+        void writeSignedVarLong(long value) throws IOException {
+            long v = (value << 1) ^ (value >> 63);
+            while ((v & ~0x7FL) != 0) {
+                out.writeByte((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            out.writeByte((int) v);
+        }
+
+        byte[] toByteArray() throws IOException {
+            out.flush();
+            return bytes.toByteArray();
+        }
+    }
+
+    private static final class BinaryReader {
+        private final ByteBuffer in;
+        private final List<String> stringTable = new ArrayList<>();
+
+        BinaryReader(byte[] body) {
+            this.in = ByteBuffer.wrap(body);
+        }
+
+        String readString() throws IOException {
+            int tag = readVarInt();
+            if (tag == 0) {
+                return null;
+            }
+            if (tag >= 2) {
+                return stringTable.get(tag - 2);
+            }
+            int length = readVarInt();
+            String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+            stringTable.add(value);
+            return value;
+        }
+
+        int readVarInt() throws IOException {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = in.get();
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        int readSignedVarInt() throws IOException {
+            int v = readVarInt();
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        long readSignedVarLong() throws IOException {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = in.get();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
+
+// 2. Benchmark: Binary vs JSON Serializer
+/**
+ * Run as a plain main() against a synthetic complete dataset. Prints payload size and
+ * average encode/decode time for the JSON serializer and the binary serializer (with and
+ * without LZ4). Numbers are indicative only - run with a warmed-up JVM and -Xmx sized for
+ * the dataset, e.g. java -Xmx4g BinarySerializerBenchmark 400000
+ */
+public class BinarySerializerBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 400_000;
+        List<ProductServiceHierarchyRecordDTO> dataset = syntheticDataset(rows);
+
+        GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+        RedisSerializer<Object> binary = new ProductServicesBinaryRedisSerializer(
+            json, ProductServicesBinaryRedisSerializer.Compression.NONE);
+        RedisSerializer<Object> binaryLz4 = new ProductServicesBinaryRedisSerializer(
+            json, ProductServicesBinaryRedisSerializer.Compression.LZ4);
+
+        System.out.println("--- Serializer Benchmark (" + rows + " rows) ---");
+        run("JSON (GenericJackson2Json)", json, dataset);
+        run("Binary", binary, dataset);
+        run("Binary + LZ4", binaryLz4, dataset);
+    }
+
+    private static void run(String name, RedisSerializer<Object> serializer, Object value) {
+        byte[] bytes = null;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            bytes = serializer.serialize(value);
+            serializer.deserialize(bytes);
+        }
+
+        long encodeNanos = 0;
+        long decodeNanos = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            bytes = serializer.serialize(value);
+            encodeNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            serializer.deserialize(bytes);
+            decodeNanos += System.nanoTime() - start;
+        }
+
+        System.out.println(String.format("%-28s size: %,12d bytes | encode: %6d ms | decode: %6d ms",
+            name, bytes.length,
+            TimeUnit.NANOSECONDS.toMillis(encodeNanos / MEASURED_ROUNDS),
+            TimeUnit.NANOSECONDS.toMillis(decodeNanos / MEASURED_ROUNDS)));
+    }
+
+    // Shaped like production: few segments/regions/countries, ~10 customers per client, ~5 clients per parent
+    static List<ProductServiceHierarchyRecordDTO> syntheticDataset(int rows) {
+        String[] segments = {"NA", "ECA", "APAC", "LATAM"};
+        String[] regions = {"US", "UK", "DE", "JP", "BR", "IN"};
+        String[] countries = {"USA", "GBR", "DEU", "JPN", "BRA", "IND", "CAN", "FRA"};
+        Random random = new Random(42);
+        int[] counts = new int[ProductServicesSnapshot.COUNT_COLUMNS];
+
+        List<ProductServiceHierarchyRecordDTO> records = new ArrayList<>(rows);
+        for (int row = 0; row < rows; row++) {
+            int parent = row / 50;
+            int client = row / 10;
+            for (int col = 0; col < counts.length; col++) {
+                counts[col] = random.nextInt(200);
+            }
+            records.add(ProductServicesSnapshot.newRecord(
+                "Parent " + parent, Integer.toString(100000 + parent),
+                "C" + client, "CU" + row,
+                segments[parent % segments.length], regions[parent % regions.length],
+                "Client Name " + client, "Customer Name " + row,
+                counts, 0, countries[parent % countries.length]));
+        }
+        return records;
+    }
+}
+
+// 3. Dependency and Configuration Example
+/*
+<dependency>
+    <groupId>org.lz4</groupId>
+    <artifactId>lz4-java</artifactId>
+    <version>1.8.0</version>
+</dependency>
+
+# application.properties
+cache.redis.value-format=json     # json (reads binary too, writes JSON) | binary
+cache.redis.compression=lz4       # lz4 | none
+
+# Rollout, in two releases - nodes older than this code read JSON only and would fail (and fall
+# back to the database) on binary entries:
+#   1. Deploy this code with value-format=json (the default) to every node. All nodes now read
+#      both formats but still write JSON.
+#   2. Once no older node is left, set value-format=binary. JSON entries written before the switch
+#      are still served until they expire.
+# To roll back from step 2, go back to value-format=json, never to a release older than step 1.
+*/
@@ -17,6 +17,11 @@ public @interface CachePreloadable {
      * Description of what this service preloads
      */
     String description() default "";
+    
+    /**
+     * Services (by getServiceName()) that must finish preloading before this one starts
+     */
+    String[] dependsOn() default {};
 }
 
 // 2. Create an Interface for Preloadable Services
@@ -27,6 +32,14 @@ public interface PreloadableService {
      */
     void preloadCache() throws Exception;
     
+    /**
+     * Preload within the configured budget (cache.preload.services.<name>.*). Services that can
+     * tell their size up front should refuse to load beyond it; the default ignores the budget.
+     */
+    default void preloadCache(PreloadBudget budget) throws Exception {
+        preloadCache();
+    }
+    
     /**
      * Return the name/identifier of this service for logging
      */
@@ -40,6 +53,28 @@ public interface PreloadableService {
     default long getEstimatedPreloadTime() {
         return 1000; // Default 1 second
     }
+    
+    /**
+     * Whether the cached data is old enough to be reloaded ahead of expiry (checked periodically)
+     */
+    default boolean isRefreshDue() {
+        return false;
+    }
+    
+    /**
+     * Reload the cached data in the background while the current entries keep being served.
+     * Must replace entries rather than evict them.
+     */
+    default void refreshCache() throws Exception {
+        preloadCache();
+    }
+    
+    /**
+     * Number of records held after preloading, for progress reporting (-1 if not known)
+     */
+    default long getPreloadedRecordCount() {
+        return -1;
+    }
 }
 
 // 3. Updated ProductServicesServiceImpl implementing PreloadableService
@@ -60,6 +95,9 @@ public class ProductServicesServiceImpl implements ProductServicesService, Prelo
     @Autowired
     private ProductServicesService self;
 
+    @Autowired
+    FilterTrafficRecorder filterTrafficRecorder;
+
     // Your existing methods...
     public List<ProductServiceHierarchyRecordDTO> getProductServicesData(GlobalFilterDTO globalFilterDTO)
             throws SQLException {
@@ -105,6 +143,8 @@ public class ProductServicesServiceImpl implements ProductServicesService, Prelo
         // Add your common scenarios
         GlobalFilterDTO defaultFilter = new GlobalFilterDTO();
         scenarios.add(defaultFilter);
+        // Plus the filters users actually run most (recorded across all pods)
+        scenarios.addAll(filterTrafficRecorder.topFilters(20));
         return scenarios;
     }
     
@@ -161,31 +201,84 @@ public class CachePreloadService {
     private ApplicationContext applicationContext;
     
     @Autowired
-    private Environment environment;
+    private CachePreloadConfig cachePreloadConfig;
+    
+    @Autowired
+    private CachePreloadProgress preloadProgress;
+    
+    // One preload run at a time (startup or on demand)
+    private final AtomicBoolean running = new AtomicBoolean();
+    // Services not started by this time are skipped (Long.MAX_VALUE = no cache.preload.time-budget)
+    private volatile long runDeadlineAt = Long.MAX_VALUE;
+    
+    @Autowired
+    private PreloadDurationHistory durationHistory;
     
+    // Runs the preloadCache() calls themselves; never the common pool (see CachePreloadExecutorConfig)
+    @Autowired
+    @Qualifier("cachePreloadExecutor")
+    private ExecutorService cachePreloadExecutor;
+    
+    /**
+     * Starts the preload in the background. Readiness is held by CachePreloadHealthIndicator until
+     * the preload finishes or cache.preload.readiness-deadline passes.
+     */
     @EventListener(ApplicationReadyEvent.class)
     public void preloadCache() {
+        if (!cachePreloadConfig.isEnabled()) {
+            logger.info("Cache preload is disabled via configuration");
+            preloadProgress.finish();
+            return;
+        }
+        startPreload(Collections.emptyList());
+    }
+    
+    /**
+     * Starts a preload run in the background (e.g. to re-warm after a Redis failover).
+     *
+     * @param onlyServices services to run (still subject to include/exclude); empty = all
+     * @return false if preloading is disabled or a run is already in progress
+     */
+    public boolean startPreload(List<String> onlyServices) {
+        if (!cachePreloadConfig.isEnabled() || !running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread coordinator = new Thread(() -> {
+            try {
+                runPreload(onlyServices);
+            } finally {
+                running.set(false);
+            }
+        }, "cache-preload-coordinator");
+        coordinator.setDaemon(true);
+        coordinator.start();
+        return true;
+    }
+    
+    public boolean isRunning() {
+        return running.get();
+    }
+    
+    private void runPreload(List<String> onlyServices) {
         logger.info("Starting cache preload process...");
         
         try {
-            boolean cachePreloadEnabled = Boolean.parseBoolean(
-                environment.getProperty("cache.preload.enabled", "true")
-            );
-            
-            if (!cachePreloadEnabled) {
-                logger.info("Cache preload is disabled via configuration");
-                return;
-            }
-            
             // Get all services marked for preloading
-            List<PreloadableService> preloadableServices = getPreloadableServices();
+            List<PreloadableService> preloadableServices = new ArrayList<>(getPreloadableServices());
+            if (!onlyServices.isEmpty()) {
+                preloadableServices.removeIf(service -> !onlyServices.contains(service.getServiceName()));
+            }
             
             if (preloadableServices.isEmpty()) {
                 logger.info("No services found for cache preloading");
                 return;
             }
             
+            long timeBudget = cachePreloadConfig.getTimeBudget();
+            runDeadlineAt = timeBudget > 0 ? System.currentTimeMillis() + timeBudget : Long.MAX_VALUE;
+            
             logger.info("Found {} services for cache preloading", preloadableServices.size());
+            preloadProgress.begin(preloadableServices, this::expectedDuration, cachePreloadConfig.getReadinessDeadline());
             
             // Execute preloading
             executePreloading(preloadableServices);
@@ -194,11 +287,26 @@ public class CachePreloadService {
             
         } catch (Exception e) {
             logger.error("Error during cache preload: {}", e.getMessage(), e);
+        } finally {
+            preloadProgress.finish();
         }
     }
     
-    private List<PreloadableService> getPreloadableServices() {
+    public boolean isEnabled() {
+        return cachePreloadConfig.isEnabled();
+    }
+    
+    /**
+     * @CachePreloadable services allowed by cache.preload.include-only-services / exclude-services;
+     * none while cache.preload.enabled=false (this also stops refresh-ahead)
+     */
+    List<PreloadableService> getPreloadableServices() {
         List<PreloadableService> services = new ArrayList<>();
+        if (!cachePreloadConfig.isEnabled()) {
+            return services;
+        }
+        List<String> includeOnly = cachePreloadConfig.getIncludeOnlyServices();
+        List<String> exclude = cachePreloadConfig.getExcludeServices();
         
         // Get all beans that implement PreloadableService
         Map<String, PreloadableService> preloadableBeans = 
@@ -211,11 +319,21 @@ public class CachePreloadService {
             // Check if the service is marked with @CachePreloadable
             CachePreloadable annotation = serviceClass.getAnnotation(CachePreloadable.class);
             
-            if (annotation != null && annotation.enabled()) {
-                services.add(service);
-                logger.info("Registered service for preloading: {} (Priority: {}, Description: {})", 
-                    service.getServiceName(), annotation.priority(), annotation.description());
+            if (annotation == null || !annotation.enabled()) {
+                continue;
+            }
+            String serviceName = service.getServiceName();
+            if (!includeOnly.isEmpty() && !includeOnly.contains(serviceName)) {
+                logger.debug("Service {} not in include-only-services, not preloading", serviceName);
+                continue;
             }
+            if (exclude.contains(serviceName)) {
+                logger.debug("Service {} is in exclude-services, not preloading", serviceName);
+                continue;
+            }
+            services.add(service);
+            logger.debug("Registered service for preloading: {} (Priority: {}, Description: {})", 
+                serviceName, annotation.priority(), annotation.description());
         }
         
         // Sort by priority (lower number = higher priority)
@@ -228,57 +346,262 @@ public class CachePreloadService {
         return services;
     }
     
+    /**
+     * Runs the preloads as a dependency graph of CompletableFutures on cachePreloadExecutor: a service
+     * is submitted as soon as everything it dependsOn has finished, services without dependencies are
+     * submitted immediately (in priority order, then longest remaining chain first), and at most
+     * cache.preload.max-concurrency run at once. No thread waits on another preload's future. Total
+     * time is roughly the longest dependency chain instead of the sum of all preloads.
+     */
     private void executePreloading(List<PreloadableService> services) {
         long totalStartTime = System.currentTimeMillis();
-        int successCount = 0;
-        int failureCount = 0;
+        AtomicInteger successCount = new AtomicInteger();
+        AtomicInteger failureCount = new AtomicInteger();
         
+        Map<String, PreloadableService> servicesByName = new LinkedHashMap<>();
         for (PreloadableService service : services) {
-            try {
-                long serviceStartTime = System.currentTimeMillis();
-                
-                logger.info("Starting cache preload for service: {}", service.getServiceName());
-                
-                // Execute preloading with timeout protection
-                executeWithTimeout(service);
-                
-                long serviceEndTime = System.currentTimeMillis();
-                long actualTime = serviceEndTime - serviceStartTime;
-                
-                logger.info("Completed cache preload for service: {} in {}ms", 
-                    service.getServiceName(), actualTime);
-                
-                successCount++;
-                
-                // Add delay between services to avoid overwhelming the system
-                Thread.sleep(200);
-                
-            } catch (Exception e) {
-                logger.error("Failed to preload cache for service: {} - Error: {}", 
-                    service.getServiceName(), e.getMessage());
-                failureCount++;
-            }
+            servicesByName.put(service.getServiceName(), service);
         }
+        Map<String, List<String>> dependencies = resolveDependencies(servicesByName);
+        
+        int maxConcurrency = Math.max(1, cachePreloadConfig.getMaxConcurrency());
+        // The platform executor already has maxConcurrency threads; this also caps the virtual-thread one.
+        // Fair, so preloads start in the order they were submitted.
+        Semaphore permits = new Semaphore(maxConcurrency, true);
+        
+        // Within a priority, start the services at the head of the longest (recorded) chains first,
+        // so the long preloads are not left to run alone at the end
+        Map<String, Long> chainDurations = new HashMap<>();
+        List<String> startOrder = new ArrayList<>(servicesByName.keySet());
+        startOrder.sort(Comparator
+            .comparingInt((String name) -> servicesByName.get(name).getClass()
+                .getAnnotation(CachePreloadable.class).priority())
+            .thenComparing(name -> -chainDuration(name, servicesByName, dependencies, chainDurations)));
+        
+        Map<String, CompletableFuture<Void>> futures = new HashMap<>();
+        for (String serviceName : startOrder) {
+            scheduleService(serviceName, servicesByName, dependencies, futures, permits, successCount, failureCount);
+        }
+        
+        CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0]))
+            .exceptionally(e -> null) // failures are counted per service
+            .join();
         
         long totalEndTime = System.currentTimeMillis();
         long totalTime = totalEndTime - totalStartTime;
         
-        logger.info("Cache preload summary - Total time: {}ms, Success: {}, Failures: {}", 
-            totalTime, successCount, failureCount);
+        logger.info("Cache preload summary - Total time: {}ms, Success: {}, Failures: {} (max concurrency: {})", 
+            totalTime, successCount.get(), failureCount.get(), maxConcurrency);
     }
     
-    private void executeWithTimeout(PreloadableService service) throws Exception {
-        long timeout = Math.max(service.getEstimatedPreloadTime() * 3, 30000); // 3x estimated or 30s min
+    /**
+     * Expected duration of a service plus everything that (transitively) waits for it
+     */
+    private long chainDuration(String serviceName, Map<String, PreloadableService> servicesByName,
+                               Map<String, List<String>> dependencies, Map<String, Long> memo) {
+        Long cached = memo.get(serviceName);
+        if (cached != null) {
+            return cached;
+        }
+        long longestDependent = 0;
+        for (Map.Entry<String, List<String>> entry : dependencies.entrySet()) {
+            if (entry.getValue().contains(serviceName)) {
+                longestDependent = Math.max(longestDependent, 
+                    chainDuration(entry.getKey(), servicesByName, dependencies, memo));
+            }
+        }
+        long duration = expectedDuration(servicesByName.get(serviceName)) + longestDependent;
+        memo.put(serviceName, duration);
+        return duration;
+    }
+    
+    /**
+     * Median of the recorded durations, or the service's own estimate when there is no history yet
+     */
+    long expectedDuration(PreloadableService service) {
+        return durationHistory.percentile(service.getServiceName(), 50)
+            .orElse(service.getEstimatedPreloadTime());
+    }
+    
+    /**
+     * timeoutMultiplier x the configured percentile of recorded durations (the estimate when there is
+     * no history yet), never below minTimeout and never above maxTimeout
+     */
+    long timeoutFor(PreloadableService service) {
+        long basis = durationHistory.percentile(service.getServiceName(), cachePreloadConfig.getTimeoutPercentile())
+            .orElse(service.getEstimatedPreloadTime());
+        long timeout = Math.max(basis * cachePreloadConfig.getTimeoutMultiplier(), cachePreloadConfig.getMinTimeout());
+        // Timeouts are recorded as durations, so without a cap repeated timeouts would keep growing it
+        if (cachePreloadConfig.getMaxTimeout() > 0) {
+            timeout = Math.min(timeout, Math.max(cachePreloadConfig.getMaxTimeout(), cachePreloadConfig.getMinTimeout()));
+        }
+        // A per-service time budget caps the learned timeout
+        long serviceBudget = cachePreloadConfig.budgetFor(service.getServiceName()).timeBudgetMs();
+        return serviceBudget > 0 ? Math.min(timeout, serviceBudget) : timeout;
+    }
+    
+    private CompletableFuture<Void> scheduleService(String serviceName, Map<String, PreloadableService> servicesByName,
+                                                    Map<String, List<String>> dependencies,
+                                                    Map<String, CompletableFuture<Void>> futures, Semaphore permits,
+                                                    AtomicInteger successCount, AtomicInteger failureCount) {
+        CompletableFuture<Void> scheduled = futures.get(serviceName);
+        if (scheduled != null) {
+            return scheduled;
+        }
         
-        CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
-            try {
-                service.preloadCache();
-            } catch (Exception e) {
-                throw new RuntimeException(e);
+        List<CompletableFuture<Void>> upstream = new ArrayList<>();
+        for (String dependency : dependencies.getOrDefault(serviceName, Collections.emptyList())) {
+            upstream.add(scheduleService(dependency, servicesByName, dependencies, futures, permits,
+                successCount, failureCount));
+        }
+        
+        PreloadableService service = servicesByName.get(serviceName);
+        CompletableFuture<Void> future = CompletableFuture.allOf(upstream.toArray(new CompletableFuture[0]))
+            .handle((ignored, dependencyFailure) -> {
+                if (dependencyFailure != null) {
+                    logger.error("Skipping cache preload for service: {} - a dependency failed", serviceName);
+                    preloadProgress.markSkipped(serviceName, "A dependency failed");
+                    failureCount.incrementAndGet();
+                    throw new CompletionException(dependencyFailure);
+                }
+                return null;
+            })
+            .thenCompose(ignored -> submitPreload(service, permits, successCount, failureCount));
+        futures.put(serviceName, future);
+        return future;
+    }
+    
+    /**
+     * Submits one preload to cachePreloadExecutor; the returned future completes when it finishes.
+     * The timeout starts when a worker picks the preload up. On timeout the task is cancelled with
+     * interruption, so a stuck preload does not keep holding a thread (and a Databricks query).
+     */
+    private CompletableFuture<Void> submitPreload(PreloadableService service, Semaphore permits,
+                                                  AtomicInteger successCount, AtomicInteger failureCount) {
+        String serviceName = service.getServiceName();
+        long timeout = timeoutFor(service);
+        PreloadBudget budget = cachePreloadConfig.budgetFor(serviceName);
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        
+        FutureTask<Void> task = new FutureTask<Void>(() -> {
+            service.preloadCache(budget);
+            return null;
+        }) {
+            private long startTime;
+            
+            @Override
+            public void run() {
+                permits.acquireUninterruptibly();
+                try {
+                    if (System.currentTimeMillis() >= runDeadlineAt) {
+                        logger.warn("Skipping cache preload for service: {} - preload time budget exhausted", serviceName);
+                        preloadProgress.markSkipped(serviceName, "Preload time budget exhausted");
+                        failureCount.incrementAndGet();
+                        result.completeExceptionally(new TimeoutException("Preload time budget exhausted"));
+                        return;
+                    }
+                    logger.info("Starting cache preload for service: {}", serviceName);
+                    preloadProgress.markRunning(serviceName);
+                    startTime = System.currentTimeMillis();
+                    // cancel() is cheap, so it runs on the delay scheduler's own thread
+                    CompletableFuture.delayedExecutor(timeout, TimeUnit.MILLISECONDS, Runnable::run)
+                        .execute(() -> cancel(true));
+                    super.run();
+                } finally {
+                    // Held until the preload actually stops, even after a timeout
+                    permits.release();
+                }
             }
-        });
+            
+            @Override
+            protected void done() {
+                Exception failure;
+                if (isCancelled()) {
+                    // Record the censored duration so the next timeout for this service grows (up to maxTimeout)
+                    durationHistory.record(serviceName, timeout);
+                    failure = new TimeoutException("Preload of " + serviceName + " exceeded " + timeout
+                        + "ms and was cancelled");
+                } else {
+                    try {
+                        get();
+                        long actualTime = System.currentTimeMillis() - startTime;
+                        logger.info("Completed cache preload for service: {} in {}ms", serviceName, actualTime);
+                        preloadProgress.markCompleted(serviceName, service.getPreloadedRecordCount());
+                        durationHistory.record(serviceName, actualTime);
+                        successCount.incrementAndGet();
+                        result.complete(null);
+                        return;
+                    } catch (ExecutionException e) {
+                        Throwable cause = e.getCause();
+                        failure = cause instanceof Exception ? (Exception) cause : e;
+                    } catch (InterruptedException e) {
+                        // Not reached: get() on a completed task does not wait
+                        Thread.currentThread().interrupt();
+                        failure = e;
+                    }
+                }
+                logger.error("Failed to preload cache for service: {} - Error: {}", serviceName, failure.getMessage());
+                preloadProgress.markFailed(serviceName, failure.getMessage());
+                failureCount.incrementAndGet();
+                result.completeExceptionally(failure);
+            }
+        };
+        
+        try {
+            cachePreloadExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            logger.error("Failed to preload cache for service: {} - preload executor is shut down", serviceName);
+            preloadProgress.markFailed(serviceName, "Preload executor is shut down");
+            failureCount.incrementAndGet();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+    
+    /**
+     * Dependencies by service name. Unknown or disabled dependencies are ignored; dependencies that
+     * form a cycle are dropped (with an error) so the graph can always complete.
+     */
+    private Map<String, List<String>> resolveDependencies(Map<String, PreloadableService> servicesByName) {
+        Map<String, List<String>> dependencies = new HashMap<>();
+        for (Map.Entry<String, PreloadableService> entry : servicesByName.entrySet()) {
+            CachePreloadable annotation = entry.getValue().getClass().getAnnotation(CachePreloadable.class);
+            List<String> resolved = new ArrayList<>();
+            for (String dependency : annotation.dependsOn()) {
+                if (servicesByName.containsKey(dependency)) {
+                    resolved.add(dependency);
+                } else {
+                    logger.warn("Service {} depends on {}, which is not being preloaded - ignoring", 
+                        entry.getKey(), dependency);
+                }
+            }
+            dependencies.put(entry.getKey(), resolved);
+        }
         
-        future.get(timeout, TimeUnit.MILLISECONDS);
+        Set<String> visited = new HashSet<>();
+        for (String serviceName : servicesByName.keySet()) {
+            removeCycles(serviceName, dependencies, visited, new LinkedHashSet<>());
+        }
+        return dependencies;
+    }
+    
+    private void removeCycles(String serviceName, Map<String, List<String>> dependencies, 
+                              Set<String> visited, Set<String> path) {
+        if (!visited.add(serviceName)) {
+            return;
+        }
+        path.add(serviceName);
+        Iterator<String> iterator = dependencies.get(serviceName).iterator();
+        while (iterator.hasNext()) {
+            String dependency = iterator.next();
+            if (path.contains(dependency)) {
+                logger.error("Cache preload dependency cycle: {} -> {} - ignoring this dependency", path, dependency);
+                iterator.remove();
+            } else {
+                removeCycles(dependency, dependencies, visited, path);
+            }
+        }
+        path.remove(serviceName);
     }
 }
 
@@ -289,6 +612,14 @@ public class CachePreloadConfig {
     private boolean enabled = true;
     private long timeoutMultiplier = 3;
     private long minTimeout = 30000; // 30 seconds
+    private long maxTimeout = 900000; // 15 minutes; upper bound of the learned timeout (0 = none)
+    private int maxConcurrency = 4; // Preloads running at the same time (protects Databricks)
+    private int timeoutPercentile = 95; // Timeout = timeoutMultiplier x this percentile of recorded durations
+    private int historySize = 20; // Recorded durations kept per service
+    private boolean virtualThreads = false; // Run preloads on virtual threads (Java 21+)
+    private long timeBudget = 0; // ms for a whole run; services not started by then are skipped (0 = none)
+    private Map<String, ServiceBudget> services = new HashMap<>(); // Per-service budgets by service name
+    private long readinessDeadline = 300000; // Report ready after 5 minutes even if preload is still running
     private List<String> excludeServices = new ArrayList<>();
     private List<String> includeOnlyServices = new ArrayList<>();
     
@@ -317,6 +648,112 @@ public class CachePreloadConfig {
         this.minTimeout = minTimeout;
     }
     
+    public long getMaxTimeout() {
+        return maxTimeout;
+    }
+    
+    public void setMaxTimeout(long maxTimeout) {
+        this.maxTimeout = maxTimeout;
+    }
+    
+    public int getTimeoutPercentile() {
+        return timeoutPercentile;
+    }
+    
+    public void setTimeoutPercentile(int timeoutPercentile) {
+        this.timeoutPercentile = timeoutPercentile;
+    }
+    
+    public int getHistorySize() {
+        return historySize;
+    }
+    
+    public void setHistorySize(int historySize) {
+        this.historySize = historySize;
+    }
+    
+    public long getTimeBudget() {
+        return timeBudget;
+    }
+    
+    public void setTimeBudget(long timeBudget) {
+        this.timeBudget = timeBudget;
+    }
+    
+    public Map<String, ServiceBudget> getServices() {
+        return services;
+    }
+    
+    public void setServices(Map<String, ServiceBudget> services) {
+        this.services = services;
+    }
+    
+    public PreloadBudget budgetFor(String serviceName) {
+        ServiceBudget budget = services.get(serviceName);
+        return budget != null ? budget.toPreloadBudget() : PreloadBudget.UNLIMITED;
+    }
+    
+    /**
+     * cache.preload.services.<name>.max-rows / max-memory-mb / time-budget (0 = unlimited)
+     */
+    public static class ServiceBudget {
+        private long maxRows;
+        private long maxMemoryMb;
+        private long timeBudget;
+        
+        public long getMaxRows() {
+            return maxRows;
+        }
+        
+        public void setMaxRows(long maxRows) {
+            this.maxRows = maxRows;
+        }
+        
+        public long getMaxMemoryMb() {
+            return maxMemoryMb;
+        }
+        
+        public void setMaxMemoryMb(long maxMemoryMb) {
+            this.maxMemoryMb = maxMemoryMb;
+        }
+        
+        public long getTimeBudget() {
+            return timeBudget;
+        }
+        
+        public void setTimeBudget(long timeBudget) {
+            this.timeBudget = timeBudget;
+        }
+        
+        PreloadBudget toPreloadBudget() {
+            return new PreloadBudget(maxRows, maxMemoryMb * 1024 * 1024, timeBudget);
+        }
+    }
+    
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+    
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+    
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+    
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+    
+    public long getReadinessDeadline() {
+        return readinessDeadline;
+    }
+    
+    public void setReadinessDeadline(long readinessDeadline) {
+        this.readinessDeadline = readinessDeadline;
+    }
+    
     public List<String> getExcludeServices() {
         return excludeServices;
     }
@@ -334,7 +771,428 @@ public class CachePreloadConfig {
     }
 }
 
-// 8. Configuration Properties Example
+// 8. Refresh-Ahead Scheduler
+/**
+ * Periodically asks every @CachePreloadable service whether its data is due for a refresh and,
+ * if so, reloads it in the background. Entries are replaced before they expire, so expiry
+ * never lands on a request.
+ */
+@Component
+public class CacheRefreshAheadScheduler {
+    private static final Logger logger = LogManager.getLogger(CacheRefreshAheadScheduler.class);
+    
+    @Autowired
+    private CachePreloadService cachePreloadService;
+    
+    @Value("${cache.refresh-ahead.enabled:true}")
+    private boolean refreshAheadEnabled;
+    
+    // Services currently refreshing, so a slow refresh is not started twice
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-refresh-ahead");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    @Scheduled(fixedDelayString = "${cache.refresh-ahead.check-interval-ms:60000}", 
+               initialDelayString = "${cache.refresh-ahead.check-interval-ms:60000}")
+    public void refreshDueServices() {
+        if (!refreshAheadEnabled) {
+            return;
+        }
+        for (PreloadableService service : cachePreloadService.getPreloadableServices()) {
+            String serviceName = service.getServiceName();
+            try {
+                if (!service.isRefreshDue() || !refreshing.add(serviceName)) {
+                    continue;
+                }
+            } catch (Exception e) {
+                logger.warn("Could not check refresh state for service: {} - {}", serviceName, e.getMessage());
+                continue;
+            }
+            refreshExecutor.execute(() -> {
+                long startTime = System.currentTimeMillis();
+                try {
+                    logger.info("Refresh-ahead started for service: {}", serviceName);
+                    service.refreshCache();
+                    logger.info("Refresh-ahead completed for service: {} in {}ms", 
+                        serviceName, (System.currentTimeMillis() - startTime));
+                } catch (Exception e) {
+                    // Current entries stay in place until they expire
+                    logger.error("Refresh-ahead failed for service: {} - Error: {}", serviceName, e.getMessage());
+                } finally {
+                    refreshing.remove(serviceName);
+                }
+            });
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+}
+
+// 9. Preload Progress Tracking
+/**
+ * Per-service preload progress and the overall readiness decision. Ready means the preload run
+ * has finished (successfully or not) or its readiness deadline has passed.
+ */
+@Component
+public class CachePreloadProgress {
+    
+    public enum State { PENDING, RUNNING, COMPLETED, FAILED, SKIPPED }
+    
+    public static final class ServiceProgress {
+        private final long estimatedMs;
+        private volatile State state = State.PENDING;
+        private volatile long startedAt;
+        private volatile long completedAt;
+        private volatile long recordsLoaded = -1;
+        private volatile String error;
+        
+        ServiceProgress(long estimatedMs) {
+            this.estimatedMs = estimatedMs;
+        }
+        
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("state", state);
+            map.put("estimatedMs", estimatedMs);
+            if (startedAt > 0) {
+                long durationMs = (completedAt > 0 ? completedAt : System.currentTimeMillis()) - startedAt;
+                map.put("startedAt", Instant.ofEpochMilli(startedAt).toString());
+                map.put("durationMs", durationMs);
+                map.put("percentOfEstimate", estimatedMs > 0 ? durationMs * 100 / estimatedMs : null);
+            }
+            if (completedAt > 0) {
+                map.put("completedAt", Instant.ofEpochMilli(completedAt).toString());
+            }
+            if (recordsLoaded >= 0) {
+                map.put("recordsLoaded", recordsLoaded);
+            }
+            if (error != null) {
+                map.put("error", error);
+            }
+            return map;
+        }
+    }
+    
+    private final Map<String, ServiceProgress> services = new ConcurrentHashMap<>();
+    private volatile List<String> serviceOrder = Collections.emptyList();
+    private volatile long startedAt;
+    private volatile long deadlineAt;
+    private volatile long finishedAt;
+    private volatile boolean readyOnce;
+    
+    void begin(List<PreloadableService> preloadServices, ToLongFunction<PreloadableService> expectedDuration,
+               long readinessDeadlineMs) {
+        // A rerun reports only its own services
+        services.clear();
+        List<String> order = new ArrayList<>();
+        for (PreloadableService service : preloadServices) {
+            services.put(service.getServiceName(), new ServiceProgress(expectedDuration.applyAsLong(service)));
+            order.add(service.getServiceName());
+        }
+        serviceOrder = order;
+        finishedAt = 0;
+        startedAt = System.currentTimeMillis();
+        deadlineAt = startedAt + readinessDeadlineMs;
+    }
+    
+    void markRunning(String serviceName) {
+        ServiceProgress progress = services.get(serviceName);
+        progress.startedAt = System.currentTimeMillis();
+        progress.state = State.RUNNING;
+    }
+    
+    void markCompleted(String serviceName, long recordsLoaded) {
+        ServiceProgress progress = services.get(serviceName);
+        progress.recordsLoaded = recordsLoaded;
+        progress.completedAt = System.currentTimeMillis();
+        progress.state = State.COMPLETED;
+    }
+    
+    void markFailed(String serviceName, String error) {
+        ServiceProgress progress = services.get(serviceName);
+        progress.error = error;
+        progress.completedAt = System.currentTimeMillis();
+        progress.state = State.FAILED;
+    }
+    
+    void markSkipped(String serviceName, String reason) {
+        ServiceProgress progress = services.get(serviceName);
+        progress.error = reason;
+        progress.state = State.SKIPPED;
+    }
+    
+    void finish() {
+        finishedAt = System.currentTimeMillis();
+        readyOnce = true;
+    }
+    
+    public boolean isFinished() {
+        return finishedAt > 0;
+    }
+    
+    public boolean isDeadlineExceeded() {
+        return !isFinished() && deadlineAt > 0 && System.currentTimeMillis() >= deadlineAt;
+    }
+    
+    /**
+     * Once ready, on-demand re-runs do not take the pod out of rotation again
+     */
+    public boolean isReady() {
+        if (isFinished() || isDeadlineExceeded()) {
+            readyOnce = true;
+        }
+        return readyOnce;
+    }
+    
+    public long countInState(State state) {
+        return services.values().stream().filter(progress -> progress.state == state).count();
+    }
+    
+    public Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("ready", isReady());
+        report.put("finished", isFinished());
+        report.put("deadlineExceeded", isDeadlineExceeded());
+        if (startedAt > 0) {
+            report.put("startedAt", Instant.ofEpochMilli(startedAt).toString());
+            report.put("deadlineAt", Instant.ofEpochMilli(deadlineAt).toString());
+            report.put("elapsedMs", (isFinished() ? finishedAt : System.currentTimeMillis()) - startedAt);
+        }
+        Map<String, Object> perService = new LinkedHashMap<>();
+        for (String serviceName : serviceOrder) {
+            ServiceProgress progress = services.get(serviceName);
+            if (progress != null) { // null while a rerun is replacing the previous run's services
+                perService.put(serviceName, progress.toMap());
+            }
+        }
+        report.put("services", perService);
+        return report;
+    }
+}
+
+// 10. Readiness Health Indicator and Actuator Endpoint
+/**
+ * OUT_OF_SERVICE until the preload finishes or its deadline passes. Add it to the readiness group
+ * so Kubernetes only routes traffic to pods with warm caches:
+ *   management.endpoint.health.group.readiness.include=readinessState,cachePreload
+ */
+@Component("cachePreloadHealthIndicator")
+public class CachePreloadHealthIndicator implements HealthIndicator {
+    
+    @Autowired
+    private CachePreloadProgress preloadProgress;
+    
+    @Override
+    public Health health() {
+        Health.Builder builder = preloadProgress.isReady() ? Health.up() : Health.outOfService();
+        return builder
+            .withDetail("finished", preloadProgress.isFinished())
+            .withDetail("deadlineExceeded", preloadProgress.isDeadlineExceeded())
+            .withDetail("completed", preloadProgress.countInState(CachePreloadProgress.State.COMPLETED))
+            .withDetail("running", preloadProgress.countInState(CachePreloadProgress.State.RUNNING))
+            .withDetail("failed", preloadProgress.countInState(CachePreloadProgress.State.FAILED))
+            .build();
+    }
+}
+
+/**
+ * GET /actuator/cachepreload - per-service preload progress
+ */
+@Component
+@Endpoint(id = "cachepreload")
+public class CachePreloadEndpoint {
+    
+    @Autowired
+    private CachePreloadProgress preloadProgress;
+    
+    @Autowired
+    private CachePreloadService cachePreloadService;
+    
+    @ReadOperation
+    public Map<String, Object> progress() {
+        return preloadProgress.report();
+    }
+    
+    /**
+     * POST /actuator/cachepreload (optional body {"services": "A,B"}) - re-runs the preload without
+     * a restart, e.g. after a Redis failover. Include/exclude lists and budgets still apply.
+     */
+    @WriteOperation
+    public Map<String, Object> rerun(@Nullable String services) {
+        List<String> onlyServices = services == null || services.isBlank()
+            ? Collections.emptyList()
+            : Arrays.stream(services.split(",")).map(String::trim).collect(Collectors.toList());
+        boolean started = cachePreloadService.startPreload(onlyServices);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("started", started);
+        result.put("message", started ? "Preload started"
+            : !cachePreloadService.isEnabled() ? "Cache preload is disabled via configuration"
+            : "A preload run is already in progress");
+        return result;
+    }
+}
+
+// 11. Recorded Preload Durations
+/**
+ * Keeps the last historySize successful (or timed-out) preload durations per service in a Redis
+ * list shared by all pods, with a local copy used when Redis is unavailable.
+ */
+@Component
+public class PreloadDurationHistory {
+    private static final Logger logger = LogManager.getLogger(PreloadDurationHistory.class);
+    
+    static final String KEY_PREFIX = "cache:preload:durations:";
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    @Autowired
+    private CachePreloadConfig cachePreloadConfig;
+    
+    private final Map<String, List<Long>> localHistory = new ConcurrentHashMap<>();
+    
+    public void record(String serviceName, long durationMs) {
+        int historySize = cachePreloadConfig.getHistorySize();
+        localHistory.compute(serviceName, (name, durations) -> {
+            List<Long> updated = new ArrayList<>();
+            updated.add(durationMs);
+            if (durations != null) {
+                updated.addAll(durations.subList(0, Math.min(durations.size(), historySize - 1)));
+            }
+            return updated;
+        });
+        try {
+            String key = KEY_PREFIX + serviceName;
+            redisTemplate.opsForList().leftPush(key, Long.toString(durationMs));
+            redisTemplate.opsForList().trim(key, 0, historySize - 1);
+        } catch (Exception e) {
+            logger.warn("Could not record preload duration for {} in Redis: {}", serviceName, e.getMessage());
+        }
+    }
+    
+    public List<Long> durations(String serviceName) {
+        try {
+            List<String> stored = redisTemplate.opsForList()
+                .range(KEY_PREFIX + serviceName, 0, cachePreloadConfig.getHistorySize() - 1);
+            if (stored != null && !stored.isEmpty()) {
+                List<Long> durations = new ArrayList<>(stored.size());
+                for (String value : stored) {
+                    durations.add(Long.parseLong(value));
+                }
+                return durations;
+            }
+        } catch (Exception e) {
+            logger.debug("Could not read preload durations for {} from Redis: {}", serviceName, e.getMessage());
+        }
+        return localHistory.getOrDefault(serviceName, Collections.emptyList());
+    }
+    
+    /**
+     * Nearest-rank percentile of the recorded durations, empty when nothing is recorded
+     */
+    public OptionalLong percentile(String serviceName, int percentile) {
+        List<Long> durations = new ArrayList<>(durations(serviceName));
+        if (durations.isEmpty()) {
+            return OptionalLong.empty();
+        }
+        Collections.sort(durations);
+        int rank = (int) Math.ceil(percentile / 100.0 * durations.size());
+        return OptionalLong.of(durations.get(Math.max(0, Math.min(rank, durations.size()) - 1)));
+    }
+}
+
+// 12. Dedicated Preload Executor
+/**
+ * Executor for the preloadCache() calls, separate from ForkJoinPool.commonPool() so preloads never
+ * compete with request-path parallel streams. Bounded at cache.preload.max-concurrency platform
+ * threads by default. With cache.preload.virtual-threads=true it is an unbounded virtual-thread
+ * executor (concurrency is then still capped by CachePreloadService's max-concurrency permits).
+ *
+ * The code base targets Java 17, so the Java 21 virtual-thread API is looked up reflectively; on an
+ * older runtime the flag logs a warning and the platform executor is used.
+ */
+@Configuration
+public class CachePreloadExecutorConfig {
+    private static final Logger logger = LogManager.getLogger(CachePreloadExecutorConfig.class);
+    
+    @Bean(name = "cachePreloadExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService cachePreloadExecutor(CachePreloadConfig cachePreloadConfig) {
+        if (cachePreloadConfig.isVirtualThreads()) {
+            ExecutorService virtualThreads = virtualThreadExecutor();
+            if (virtualThreads != null) {
+                return virtualThreads;
+            }
+        }
+        int threads = Math.max(1, cachePreloadConfig.getMaxConcurrency());
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "cache-preload-worker-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        // Idle between preload runs, so let the threads go
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+    
+    /**
+     * Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("cache-preload-worker-", 1).factory()),
+     * or null when the runtime has no virtual threads
+     */
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class)
+                .invoke(builder, "cache-preload-worker-", 1L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                .invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            logger.warn("cache.preload.virtual-threads requires Java 21+ (running {}), using platform threads",
+                System.getProperty("java.version"));
+            return null;
+        }
+    }
+}
+
+// 13. Preload Budget
+/**
+ * Limits for one service's preload (0 = unlimited)
+ */
+public record PreloadBudget(long maxRows, long maxMemoryBytes, long timeBudgetMs) {
+    
+    public static final PreloadBudget UNLIMITED = new PreloadBudget(0, 0, 0);
+    
+    public boolean allowsRows(long rows) {
+        return maxRows <= 0 || rows <= maxRows;
+    }
+    
+    public boolean allowsMemory(long bytes) {
+        return maxMemoryBytes <= 0 || bytes <= maxMemoryBytes;
+    }
+    
+    /**
+     * Most rows a load may read under both limits, at bytesPerRow per row (0 = no limit)
+     */
+    public long rowLimit(long bytesPerRow) {
+        long byMemory = maxMemoryBytes > 0 && bytesPerRow > 0 ? maxMemoryBytes / bytesPerRow : 0;
+        if (maxRows <= 0 || byMemory <= 0) {
+            return Math.max(maxRows, byMemory);
+        }
+        return Math.min(maxRows, byMemory);
+    }
+}
+
+// 14. Configuration Properties Example
 /*
 # application.yml
 cache:
@@ -342,6 +1200,18 @@ cache:
     enabled: true
     timeout-multiplier: 3
     min-timeout: 30000
+    max-timeout: 900000          # cap on the learned timeout (timed-out runs are recorded as durations)
+    max-concurrency: 4
+    timeout-percentile: 95       # timeout = timeout-multiplier x p95 of recorded durations, at least min-timeout
+    history-size: 20
+    virtual-threads: false       # true = preloads on virtual threads (Java 21+, else platform threads)
+    time-budget: 600000          # ms for the whole run, 0 = none
+    services:
+      ProductServicesServiceImpl:
+        max-rows: 2000000
+        max-memory-mb: 1024
+        time-budget: 300000
+    readiness-deadline: 300000   # ms; pod reports ready after this even if preload is still running
     exclude-services:
       - "ReportingServiceImpl"
       - "AnalyticsServiceImpl"
@@ -351,5 +1221,29 @@ cache:
 cache.preload.enabled=true
 cache.preload.timeout-multiplier=3
 cache.preload.min-timeout=30000
+cache.preload.max-timeout=900000
+cache.preload.max-concurrency=4
+cache.preload.timeout-percentile=95
+cache.preload.history-size=20
+cache.preload.virtual-threads=false
+cache.preload.time-budget=600000
+cache.preload.services.ProductServicesServiceImpl.max-rows=2000000
+cache.preload.services.ProductServicesServiceImpl.max-memory-mb=1024
+
+# Small canary pods: skip the heavy preload entirely
+# cache.preload.exclude-services=ProductServicesServiceImpl
+
+# Re-run on demand: POST /actuator/cachepreload  {"services": "ProductServicesServiceImpl"}
+cache.preload.readiness-deadline=300000
+
+# Hold readiness until the preload is done, expose progress
+management.endpoint.health.group.readiness.include=readinessState,cachePreload
+management.endpoints.web.exposure.include=health,cachepreload
 cache.preload.exclude-services=ReportingServiceImpl,AnalyticsServiceImpl
+
+# Refresh-ahead (reload once an entry has used this fraction of its TTL)
+cache.refresh-ahead.enabled=true
+cache.refresh-ahead.fraction=0.8
+cache.refresh-ahead.check-interval-ms=60000
+cache.refresh-ahead.failure-backoff=PT15M   # after a failed refresh or Redis write
 */
@@ -0,0 +1,373 @@
+// 1. Chunked Redis Storage for the Complete Dataset
+/**
+ * Stores the complete product-services dataset as many small Redis values instead of one huge
+ * value under product_services_complete::complete_dataset.
+ *
+ *   product_services_complete:manifest             JSON DatasetManifest (version, rowCount, chunkRows, chunkKeys, createdAt, watermark)
+ *   product_services_complete:chunk:<version>:<i>  binary-encoded List<ProductServiceHierarchyRecordDTO>
+ *
+ * Chunk keys carry no hash tag, so the cluster spreads them over all shards. Writers store every
+ * chunk first and switch the manifest last with a single SET (atomic on its slot - no MULTI, which
+ * cluster connections reject), so readers always see a complete version. Chunks of the
+ * previous version are given a short grace TTL instead of being deleted, so in-flight readers finish.
+ *
+ * Reads fetch the manifest, then fetch the chunks in parallel groups, each group as one pipeline of
+ * GETs. A missing chunk (evicted or expired) is reported as a miss and the dataset is reloaded.
+ */
+@Component
+public class ChunkedDatasetStore {
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedDatasetStore.class);
+
+    static final String KEY_PREFIX = "product_services_complete:";
+    static final String MANIFEST_KEY = KEY_PREFIX + "manifest";
+    private static final String VERSION_SEQUENCE_KEY = KEY_PREFIX + "version";
+
+    // ~100-150 bytes per encoded row, so a chunk stays at a few hundred KB before compression
+    @Value("${product.services.chunked.rows-per-chunk:2000}")
+    private int rowsPerChunk;
+
+    @Value("${product.services.chunked.fetch-parallelism:4}")
+    private int fetchParallelism;
+
+    @Value("${product.services.chunked.ttl:PT12H}")
+    private Duration ttl;
+
+    // How long chunks of a replaced version stay readable
+    @Value("${product.services.chunked.retired-ttl:PT2M}")
+    private Duration retiredTtl;
+
+    @Value("${cache.redis.compression:lz4}")
+    private String compression;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private RedisSerializer<Object> chunkSerializer;
+    private ExecutorService fetchExecutor;
+
+    @PostConstruct
+    public void init() {
+        chunkSerializer = new ProductServicesBinaryRedisSerializer(new GenericJackson2JsonRedisSerializer(),
+            ProductServicesBinaryRedisSerializer.Compression.valueOf(compression.toUpperCase()));
+        AtomicInteger threadCount = new AtomicInteger();
+        fetchExecutor = Executors.newFixedThreadPool(Math.max(1, fetchParallelism), runnable -> {
+            Thread thread = new Thread(runnable, "dataset-chunk-fetch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("Chunked dataset store initialized ({} rows per chunk, fetch parallelism {}, TTL {})",
+            rowsPerChunk, fetchParallelism, ttl);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (fetchExecutor != null) {
+            fetchExecutor.shutdownNow();
+        }
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Returns the current manifest, or null when no complete version is stored
+     */
+    public DatasetManifest readManifest() {
+        try {
+            String json = redisTemplate.opsForValue().get(MANIFEST_KEY);
+            return json != null ? objectMapper.readValue(json, DatasetManifest.class) : null;
+        } catch (Exception e) {
+            // Unreadable or a leftover of another format (WRONGTYPE) - the next write overwrites it
+            logger.warn("Could not read chunked dataset manifest, treating as a miss: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads and reassembles the complete dataset. Returns null on a miss (no manifest or a missing chunk).
+     */
+    public List<ProductServiceHierarchyRecordDTO> read() {
+        StoredDataset dataset = readDataset();
+        return dataset != null ? dataset.records() : null;
+    }
+
+    /**
+     * Reads the current version chunk by chunk. Returns null on a miss (no manifest or a missing chunk).
+     */
+    public StoredDataset readDataset() {
+        DatasetManifest manifest = readManifest();
+        if (manifest == null) {
+            return null;
+        }
+        long startTime = System.currentTimeMillis();
+        List<byte[]> chunks = fetchChunks(manifest.chunkKeys());
+        if (chunks == null) {
+            logger.warn("Chunked dataset version {} is incomplete in Redis, treating as a miss", manifest.version());
+            return null;
+        }
+
+        List<List<ProductServiceHierarchyRecordDTO>> decoded = new ArrayList<>(chunks.size());
+        int rows = 0;
+        long bytes = 0;
+        for (byte[] chunk : chunks) {
+            bytes += chunk.length;
+            List<ProductServiceHierarchyRecordDTO> chunkRows = decodeChunk(chunk);
+            rows += chunkRows.size();
+            decoded.add(chunkRows);
+        }
+        if (rows != manifest.rowCount()) {
+            logger.warn("Chunked dataset version {} has {} rows, manifest says {} - treating as a miss",
+                manifest.version(), rows, manifest.rowCount());
+            return null;
+        }
+        logger.info("Read chunked dataset version {} ({} rows, {} chunks, {} KB) in {}ms",
+            manifest.version(), rows, chunks.size(), bytes / 1024, (System.currentTimeMillis() - startTime));
+        return new StoredDataset(manifest, decoded);
+    }
+
+    /**
+     * Writes the dataset as a new version and switches the manifest to it
+     */
+    public DatasetManifest write(List<ProductServiceHierarchyRecordDTO> records) {
+        return write(records, null);
+    }
+
+    /**
+     * Writes the dataset as a new version and switches the manifest to it
+     *
+     * @param watermark source watermark the dataset is complete up to (null if unknown - disables delta refresh)
+     */
+    public DatasetManifest write(List<ProductServiceHierarchyRecordDTO> records, String watermark) {
+        long startTime = System.currentTimeMillis();
+        long version = redisTemplate.opsForValue().increment(VERSION_SEQUENCE_KEY);
+
+        List<String> chunkKeys = new ArrayList<>();
+        List<byte[]> chunkValues = new ArrayList<>();
+        encodeChunks(version, 0, records, chunkKeys, chunkValues);
+        storeChunks(chunkKeys, chunkValues, ttl);
+
+        DatasetManifest previous = readManifest();
+        DatasetManifest manifest = new DatasetManifest(version, records.size(), rowsPerChunk, chunkKeys,
+            System.currentTimeMillis(), watermark);
+        writeManifest(manifest);
+        if (previous != null) {
+            retire(previous.chunkKeys());
+        }
+
+        logger.info("Wrote chunked dataset version {} ({} rows, {} chunks) in {}ms",
+            version, records.size(), chunkKeys.size(), (System.currentTimeMillis() - startTime));
+        return manifest;
+    }
+
+    /**
+     * Writes a new version that reuses every chunk of base except the replaced ones. Only replaced
+     * chunks and the appended rows are sent to Redis; reused chunks just get their TTL extended.
+     *
+     * @param replacedChunks new contents by chunk index of base (an empty list drops the chunk)
+     * @param appended       rows not present in base, stored as new chunks at the end
+     */
+    public DatasetManifest writeDelta(DatasetManifest base, Map<Integer, List<ProductServiceHierarchyRecordDTO>> replacedChunks,
+                                      List<ProductServiceHierarchyRecordDTO> appended, int rowCount, String watermark) {
+        long startTime = System.currentTimeMillis();
+        long version = redisTemplate.opsForValue().increment(VERSION_SEQUENCE_KEY);
+
+        List<String> chunkKeys = new ArrayList<>();
+        List<String> reusedKeys = new ArrayList<>();
+        List<String> newKeys = new ArrayList<>();
+        List<byte[]> newValues = new ArrayList<>();
+        for (int i = 0; i < base.chunkKeys().size(); i++) {
+            List<ProductServiceHierarchyRecordDTO> replacement = replacedChunks.get(i);
+            if (replacement == null) {
+                chunkKeys.add(base.chunkKeys().get(i));
+                reusedKeys.add(base.chunkKeys().get(i));
+            } else if (!replacement.isEmpty()) {
+                String key = chunkKey(version, i);
+                chunkKeys.add(key);
+                newKeys.add(key);
+                newValues.add(chunkSerializer.serialize(new ArrayList<>(replacement)));
+            }
+        }
+        // Appended chunk indexes start after the base chunks so their keys never collide with replaced ones
+        int firstAppended = newKeys.size();
+        encodeChunks(version, base.chunkKeys().size(), appended, newKeys, newValues);
+        chunkKeys.addAll(newKeys.subList(firstAppended, newKeys.size()));
+
+        storeChunks(newKeys, newValues, ttl);
+        extendTtl(reusedKeys);
+        DatasetManifest manifest = new DatasetManifest(version, rowCount, rowsPerChunk, chunkKeys,
+            System.currentTimeMillis(), watermark);
+        writeManifest(manifest);
+
+        List<String> dropped = new ArrayList<>(base.chunkKeys());
+        dropped.removeAll(reusedKeys);
+        retire(dropped);
+
+        logger.info("Wrote delta version {} on top of {} ({} rows, {} of {} chunks rewritten) in {}ms",
+            version, base.version(), rowCount, newKeys.size(), chunkKeys.size(), (System.currentTimeMillis() - startTime));
+        return manifest;
+    }
+
+    /**
+     * Keeps the stored version: extends the TTL of its chunks and rewrites the manifest with a new
+     * createdAt and watermark, without changing the version number
+     */
+    public DatasetManifest touch(DatasetManifest current, String watermark) {
+        extendTtl(current.chunkKeys());
+        DatasetManifest manifest = new DatasetManifest(current.version(), current.rowCount(), current.chunkRows(),
+            current.chunkKeys(), System.currentTimeMillis(), watermark);
+        writeManifest(manifest);
+        return manifest;
+    }
+
+    private void encodeChunks(long version, int firstIndex, List<ProductServiceHierarchyRecordDTO> records,
+                              List<String> chunkKeys, List<byte[]> chunkValues) {
+        int index = firstIndex;
+        for (int from = 0; from < records.size(); from += rowsPerChunk) {
+            List<ProductServiceHierarchyRecordDTO> chunk = records.subList(from, Math.min(from + rowsPerChunk, records.size()));
+            chunkKeys.add(chunkKey(version, index++));
+            chunkValues.add(chunkSerializer.serialize(new ArrayList<>(chunk)));
+        }
+    }
+
+    static String chunkKey(long version, int index) {
+        return KEY_PREFIX + "chunk:" + version + ":" + index;
+    }
+
+    List<ProductServiceHierarchyRecordDTO> decodeChunk(byte[] chunk) {
+        @SuppressWarnings("unchecked")
+        List<ProductServiceHierarchyRecordDTO> rows = (List<ProductServiceHierarchyRecordDTO>) chunkSerializer.deserialize(chunk);
+        return rows != null ? rows : List.of();
+    }
+
+    private void writeManifest(DatasetManifest manifest) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(manifest);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize chunked dataset manifest", e);
+        }
+        // One SET ... PX replaces value and TTL together, so readers never see a mix of two versions
+        redisTemplate.opsForValue().set(MANIFEST_KEY, json, ttl);
+    }
+
+    private void retire(List<String> keys) {
+        expire(keys, retiredTtl);
+    }
+
+    private void extendTtl(List<String> keys) {
+        expire(keys, ttl);
+    }
+
+    private void expire(List<String> keys, Duration expiry) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                connection.keyCommands().expire(key.getBytes(StandardCharsets.UTF_8), expiry.getSeconds());
+            }
+            return null;
+        });
+    }
+
+    private void storeChunks(List<String> keys, List<byte[]> values, Duration expiry) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < keys.size(); i++) {
+                connection.stringCommands().set(keys.get(i).getBytes(StandardCharsets.UTF_8), values.get(i),
+                    Expiration.from(expiry), RedisStringCommands.SetOption.upsert());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Fetches the chunks in fetchParallelism groups, one pipeline per group.
+     * Returns null if any chunk is missing.
+     */
+    List<byte[]> fetchChunks(List<String> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        int groups = Math.min(Math.max(1, fetchParallelism), keys.size());
+        int groupSize = (keys.size() + groups - 1) / groups;
+
+        List<CompletableFuture<List<byte[]>>> futures = new ArrayList<>(groups);
+        for (int from = 0; from < keys.size(); from += groupSize) {
+            List<String> group = keys.subList(from, Math.min(from + groupSize, keys.size()));
+            futures.add(CompletableFuture.supplyAsync(() -> fetchGroup(group), fetchExecutor));
+        }
+
+        List<byte[]> chunks = new ArrayList<>(keys.size());
+        for (CompletableFuture<List<byte[]>> future : futures) {
+            List<byte[]> group = future.join();
+            for (byte[] chunk : group) {
+                if (chunk == null) {
+                    return null;
+                }
+                chunks.add(chunk);
+            }
+        }
+        return chunks;
+    }
+
+    private List<byte[]> fetchGroup(List<String> keys) {
+        // Raw connection so the values come back as bytes rather than through the template's string serializer
+        return redisTemplate.execute((RedisCallback<List<byte[]>>) connection -> {
+            connection.openPipeline();
+            for (String key : keys) {
+                connection.stringCommands().get(key.getBytes(StandardCharsets.UTF_8));
+            }
+            List<Object> results = connection.closePipeline();
+            List<byte[]> chunks = new ArrayList<>(results.size());
+            for (Object result : results) {
+                chunks.add((byte[]) result);
+            }
+            return chunks;
+        });
+    }
+}
+
+// 2. Dataset Manifest
+/**
+ * Describes one stored version of the complete dataset. Chunk keys are listed explicitly
+ * (rather than derived from the version) so a version can reference chunks written by another.
+ */
+public record DatasetManifest(
+    long version,
+    int rowCount,
+    int chunkRows,
+    List<String> chunkKeys,
+    long createdAt,
+    String watermark
+) {
+}
+
+/**
+ * One stored version read back chunk by chunk (chunks in manifest order)
+ */
+public record StoredDataset(
+    DatasetManifest manifest,
+    List<List<ProductServiceHierarchyRecordDTO>> chunks
+) {
+    public List<ProductServiceHierarchyRecordDTO> records() {
+        List<ProductServiceHierarchyRecordDTO> records = new ArrayList<>(manifest.rowCount());
+        for (List<ProductServiceHierarchyRecordDTO> chunk : chunks) {
+            records.addAll(chunk);
+        }
+        return records;
+    }
+}
+
+// 3. Configuration Example
+/*
+# application.properties
+product.services.chunked.enabled=true            # false = keep the single product_services_complete::complete_dataset key
+product.services.chunked.rows-per-chunk=2000
+product.services.chunked.fetch-parallelism=4
+product.services.chunked.ttl=PT12H
+product.services.chunked.retired-ttl=PT2M
+*/
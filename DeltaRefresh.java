@@ -0,0 +1,289 @@
+// 1. Delta Queries (changed and deleted rows since a watermark)
+/**
+ * Reads only what changed in the product-services source since a watermark.
+ *
+ * Assumes the source exposes a last-updated timestamp (product.services.delta.watermark-column) and
+ * that deletes are recorded in a tombstone table keyed like the rows (parent id, client GEMS id,
+ * customer GEMS id) with the time of the delete. Changed rows and tombstones both carry their
+ * timestamp, so a delete followed by a re-insert is resolved by time rather than by kind. The
+ * watermark is taken BEFORE the changed rows are read, so a row updated while the delta runs is
+ * picked up again next time rather than missed (re-applying it is harmless).
+ */
+@Repository
+public class ProductServicesDeltaRepository {
+    private static final Logger logger = LogManager.getLogger(ProductServicesDeltaRepository.class);
+
+    // {schema} is resolved by Utility.SqlWithSchema
+    private static final String CURRENT_WATERMARK_QUERY =
+        "SELECT GREATEST(" +
+        " (SELECT MAX(%1$s) FROM {schema}.product_services_updated)," +
+        " (SELECT MAX(deleted_ts) FROM {schema}.product_services_deleted))";
+
+    private static final String CHANGED_ROWS_QUERY =
+        "SELECT * FROM {schema}.product_services_updated WHERE %1$s > :watermark";
+
+    private static final String DELETED_KEYS_QUERY =
+        "SELECT parent_id, mdm_client_gems_id, mdm_cust_gems_id, deleted_ts FROM {schema}.product_services_deleted " +
+        "WHERE deleted_ts > :watermark";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${product.services.delta.watermark-column:last_updated_ts}")
+    private String watermarkColumn;
+
+    /**
+     * Latest change (update or delete) in the source, as text; null if the source is empty
+     */
+    public String currentWatermark() throws SQLException {
+        Timestamp watermark = jdbcTemplate.queryForObject(
+            Utility.SqlWithSchema(String.format(CURRENT_WATERMARK_QUERY, watermarkColumn)), Timestamp.class);
+        return watermark != null ? watermark.toString() : null;
+    }
+
+    /**
+     * Rows changed since the watermark, each with its watermark-column value
+     */
+    public List<ChangedRow> findChangedSince(String watermark) throws SQLException {
+        NamedParameterJdbcTemplate namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        Map<String, Object> paramMap = new HashMap<>();
+        paramMap.put("watermark", Timestamp.valueOf(watermark));
+        ProductServiceHierarchyRecordRowMapper recordMapper = new ProductServiceHierarchyRecordRowMapper();
+        List<ChangedRow> changed = namedParameterJdbcTemplate.query(
+            Utility.SqlWithSchema(String.format(CHANGED_ROWS_QUERY, watermarkColumn)), paramMap,
+            (rs, rowNum) -> new ChangedRow(recordMapper.mapRow(rs, rowNum), rs.getTimestamp(watermarkColumn)));
+        logger.info("Delta query: {} changed rows since {}", changed.size(), watermark);
+        return changed;
+    }
+
+    /**
+     * Row keys (see ProductServicesDeltaRefresher.rowKey) deleted since the watermark, with the
+     * latest delete time per key
+     */
+    public Map<String, Timestamp> findDeletedKeysSince(String watermark) throws SQLException {
+        NamedParameterJdbcTemplate namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        Map<String, Object> paramMap = new HashMap<>();
+        paramMap.put("watermark", Timestamp.valueOf(watermark));
+        Map<String, Timestamp> deleted = new HashMap<>();
+        namedParameterJdbcTemplate.query(Utility.SqlWithSchema(DELETED_KEYS_QUERY), paramMap, rs -> {
+            String key = ProductServicesDeltaRefresher.rowKey(
+                rs.getString("parent_id"), rs.getString("mdm_client_gems_id"), rs.getString("mdm_cust_gems_id"));
+            deleted.merge(key, rs.getTimestamp("deleted_ts"),
+                (a, b) -> ProductServicesDeltaRefresher.isAfter(b, a) ? b : a);
+        });
+        logger.info("Delta query: {} deleted rows since {}", deleted.size(), watermark);
+        return deleted;
+    }
+}
+
+/**
+ * A changed source row and the value of its watermark column
+ */
+public record ChangedRow(ProductServiceHierarchyRecordDTO record, Timestamp changedAt) {
+}
+
+// 2. Delta Refresher
+/**
+ * Applies the changes since the stored dataset's watermark to the chunked Redis copy and returns
+ * the merged dataset for a new snapshot. Only the delta is queried from the database and only
+ * chunks that contain a changed or deleted row (plus new rows) are rewritten in Redis.
+ *
+ * Rows are identified by parent id, client GEMS id, customer GEMS id and country (recordKey);
+ * tombstones carry no country, so a delete removes the key's rows in every country. A change wins
+ * over a delete of its key only when it is later than the delete.
+ *
+ * Returns null when a delta is not possible or not worth it (nothing stored, no watermark, or
+ * more than maxChangedFraction of the rows changed) - the caller then does a full reload. When
+ * nothing changed, only the manifest's TTL and createdAt are refreshed and the result says so,
+ * so the caller keeps its current snapshot.
+ */
+@Component
+public class ProductServicesDeltaRefresher {
+    private static final Logger logger = LogManager.getLogger(ProductServicesDeltaRefresher.class);
+
+    @Autowired
+    private ProductServicesDeltaRepository deltaRepository;
+
+    @Autowired
+    private ChunkedDatasetStore chunkedDatasetStore;
+
+    // Above this share of changed rows a full reload is cheaper than merging
+    @Value("${product.services.delta.max-changed-fraction:0.2}")
+    private double maxChangedFraction;
+
+    /**
+     * Key of the tombstone table: parent id, client GEMS id, customer GEMS id
+     */
+    static String rowKey(String parentId, String mdmClientGemsId, String mdmCustGemsId) {
+        return parentId + "|" + mdmClientGemsId + "|" + mdmCustGemsId;
+    }
+
+    static String rowKey(ProductServiceHierarchyRecordDTO record) {
+        return rowKey(record.parentId(), record.mdmClientGemsId(), record.mdmCustGemsId());
+    }
+
+    /**
+     * Identity of a row: the same parent/client/customer appears once per country
+     */
+    static String recordKey(ProductServiceHierarchyRecordDTO record) {
+        return rowKey(record) + "|" + record.country();
+    }
+
+    // A missing timestamp counts as older than any other
+    static boolean isAfter(Timestamp a, Timestamp b) {
+        return a != null && (b == null || a.after(b));
+    }
+
+    public String currentWatermark() throws SQLException {
+        return deltaRepository.currentWatermark();
+    }
+
+    public DeltaRefreshResult refresh() throws SQLException {
+        long startTime = System.currentTimeMillis();
+        StoredDataset base = chunkedDatasetStore.readDataset();
+        if (base == null || base.manifest().watermark() == null) {
+            logger.info("No stored dataset with a watermark, delta refresh not possible");
+            return null;
+        }
+        DatasetManifest manifest = base.manifest();
+
+        String newWatermark = deltaRepository.currentWatermark();
+        List<ChangedRow> changed = deltaRepository.findChangedSince(manifest.watermark());
+        Map<String, Timestamp> deleted = deltaRepository.findDeletedKeysSince(manifest.watermark());
+        if (changed.size() + deleted.size() > manifest.rowCount() * maxChangedFraction) {
+            logger.info("Delta of {} changed and {} deleted rows exceeds {} of {} rows, doing a full reload",
+                changed.size(), deleted.size(), maxChangedFraction, manifest.rowCount());
+            return null;
+        }
+        String watermark = newWatermark != null ? newWatermark : manifest.watermark();
+
+        DeltaMerge merge = merge(base.chunks(), changed, deleted);
+        if (merge.replacedChunks().isEmpty() && merge.appended().isEmpty()) {
+            // Same rows as the stored version - keep its version number so per-version caches stay valid
+            chunkedDatasetStore.touch(manifest, watermark);
+            logger.info("Delta refresh: no changes since {}, kept version {}", manifest.watermark(), manifest.version());
+            return DeltaRefreshResult.UNCHANGED;
+        }
+        chunkedDatasetStore.writeDelta(manifest, merge.replacedChunks(), merge.appended(), merge.merged().size(),
+            watermark);
+
+        logger.info("Delta refresh applied {} changed rows ({} new) and {} deleted keys in {}ms",
+            changed.size(), merge.appended().size(), deleted.size(), (System.currentTimeMillis() - startTime));
+        return new DeltaRefreshResult(merge.merged(), true);
+    }
+
+    /**
+     * Applies changed rows and deletes to the stored chunks. Existing rows keep their position;
+     * every occurrence of a changed row is replaced. Rows not present yet are inserted in parent
+     * order, like the full load (ProductServicesPartitionedLoader.PARENT_ORDER): before the first
+     * stored row of a later parent, or appended after the last chunk when no such row exists.
+     */
+    static DeltaMerge merge(List<List<ProductServiceHierarchyRecordDTO>> chunks, List<ChangedRow> changed,
+                            Map<String, Timestamp> deleted) {
+        // Latest change per row, unless its key was deleted after it
+        Map<String, ChangedRow> upserts = new LinkedHashMap<>();
+        for (ChangedRow row : changed) {
+            Timestamp deletedAt = deleted.get(rowKey(row.record()));
+            if (deletedAt != null && !isAfter(row.changedAt(), deletedAt)) {
+                continue;
+            }
+            upserts.merge(recordKey(row.record()), row, (a, b) -> isAfter(a.changedAt(), b.changedAt()) ? a : b);
+        }
+
+        List<ProductServiceHierarchyRecordDTO> inserts = newRows(chunks, upserts);
+        int nextInsert = 0;
+
+        Map<Integer, List<ProductServiceHierarchyRecordDTO>> replacedChunks = new HashMap<>();
+        List<ProductServiceHierarchyRecordDTO> merged = new ArrayList<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            List<ProductServiceHierarchyRecordDTO> chunk = chunks.get(i);
+            List<ProductServiceHierarchyRecordDTO> replacement = null;
+            for (int row = 0; row < chunk.size(); row++) {
+                ProductServiceHierarchyRecordDTO record = chunk.get(row);
+                int insertEnd = nextInsert;
+                while (insertEnd < inserts.size()
+                    && ProductServicesPartitionedLoader.PARENT_ORDER.compare(inserts.get(insertEnd), record) < 0) {
+                    insertEnd++;
+                }
+                ChangedRow update = upserts.get(recordKey(record));
+                boolean isDeleted = update == null && deleted.containsKey(rowKey(record));
+                if (replacement == null && (insertEnd > nextInsert || isDeleted || update != null)) {
+                    replacement = new ArrayList<>(chunk.subList(0, row));
+                }
+                if (replacement != null) {
+                    replacement.addAll(inserts.subList(nextInsert, insertEnd));
+                    if (!isDeleted) {
+                        replacement.add(update != null ? update.record() : record);
+                    }
+                }
+                nextInsert = insertEnd;
+            }
+            if (replacement != null) {
+                replacedChunks.put(i, replacement);
+            }
+            merged.addAll(replacement != null ? replacement : chunk);
+        }
+
+        List<ProductServiceHierarchyRecordDTO> appended = new ArrayList<>(inserts.subList(nextInsert, inserts.size()));
+        merged.addAll(appended);
+        return new DeltaMerge(replacedChunks, appended, merged);
+    }
+
+    /**
+     * Upserted rows whose key is not stored yet, sorted in parent order. Only rows of the changed
+     * parents are keyed, so the pass over the stored chunks stays cheap.
+     */
+    private static List<ProductServiceHierarchyRecordDTO> newRows(List<List<ProductServiceHierarchyRecordDTO>> chunks,
+                                                                  Map<String, ChangedRow> upserts) {
+        Set<String> changedParents = new HashSet<>();
+        for (ChangedRow row : upserts.values()) {
+            changedParents.add(row.record().parentId());
+        }
+        Set<String> stored = new HashSet<>();
+        for (List<ProductServiceHierarchyRecordDTO> chunk : chunks) {
+            for (ProductServiceHierarchyRecordDTO record : chunk) {
+                if (changedParents.contains(record.parentId())) {
+                    String key = recordKey(record);
+                    if (upserts.containsKey(key)) {
+                        stored.add(key);
+                    }
+                }
+            }
+        }
+
+        List<ProductServiceHierarchyRecordDTO> rows = new ArrayList<>();
+        upserts.forEach((key, row) -> {
+            if (!stored.contains(key)) {
+                rows.add(row.record());
+            }
+        });
+        // Stable: new rows of one parent keep their delta order
+        rows.sort(ProductServicesPartitionedLoader.PARENT_ORDER);
+        return rows;
+    }
+
+    /**
+     * Outcome of applying a delta to the stored chunks
+     */
+    record DeltaMerge(
+        Map<Integer, List<ProductServiceHierarchyRecordDTO>> replacedChunks,
+        List<ProductServiceHierarchyRecordDTO> appended,
+        List<ProductServiceHierarchyRecordDTO> merged
+    ) {
+    }
+}
+
+/**
+ * Result of a delta refresh: the merged dataset, or UNCHANGED when the stored version still holds
+ */
+public record DeltaRefreshResult(List<ProductServiceHierarchyRecordDTO> records, boolean changed) {
+    public static final DeltaRefreshResult UNCHANGED = new DeltaRefreshResult(null, false);
+}
+
+// 3. Configuration Example
+/*
+# application.properties
+product.services.delta.enabled=true
+product.services.delta.watermark-column=last_updated_ts
+product.services.delta.max-changed-fraction=0.2
+*/
@@ -0,0 +1,269 @@
+// 1. Space-Saving Heavy-Hitters Sketch
+/**
+ * Space-Saving top-k counter (Metwally et al.): tracks at most capacity keys. When a new key arrives
+ * and the sketch is full, the key with the smallest count is replaced and the newcomer inherits that
+ * count (+1), so counts are over-estimates by at most the evicted minimum. Any key with a true
+ * frequency above total / capacity is guaranteed to be tracked.
+ */
+public final class SpaceSavingSketch<K> {
+
+    private final int capacity;
+    private final Map<K, long[]> counters;
+    // count -> keys with that count, for O(log n) access to the minimum
+    private final TreeMap<Long, Set<K>> byCount = new TreeMap<>();
+
+    public SpaceSavingSketch(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Counts one occurrence of key
+     *
+     * @return the key that was evicted to make room, or null
+     */
+    public synchronized K offer(K key) {
+        long[] counter = counters.get(key);
+        if (counter != null) {
+            move(key, counter[0], counter[0] + 1);
+            counter[0]++;
+            return null;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new long[] {1});
+            byCount.computeIfAbsent(1L, c -> new LinkedHashSet<>()).add(key);
+            return null;
+        }
+        Map.Entry<Long, Set<K>> minimum = byCount.firstEntry();
+        K evicted = minimum.getValue().iterator().next();
+        long count = minimum.getKey();
+        remove(evicted, count);
+        counters.remove(evicted);
+        counters.put(key, new long[] {count + 1});
+        byCount.computeIfAbsent(count + 1, c -> new LinkedHashSet<>()).add(key);
+        return evicted;
+    }
+
+    public synchronized boolean contains(K key) {
+        return counters.containsKey(key);
+    }
+
+    /**
+     * Up to k keys with the highest counts, highest first
+     */
+    public synchronized List<K> topK(int k) {
+        List<K> top = new ArrayList<>(Math.min(k, counters.size()));
+        for (Set<K> keys : byCount.descendingMap().values()) {
+            for (K key : keys) {
+                if (top.size() == k) {
+                    return top;
+                }
+                top.add(key);
+            }
+        }
+        return top;
+    }
+
+    private void move(K key, long from, long to) {
+        remove(key, from);
+        byCount.computeIfAbsent(to, c -> new LinkedHashSet<>()).add(key);
+    }
+
+    private void remove(K key, long count) {
+        Set<K> keys = byCount.get(count);
+        keys.remove(key);
+        if (keys.isEmpty()) {
+            byCount.remove(count);
+        }
+    }
+}
+
+// 2. Filter Traffic Recorder
+/**
+ * Records the normalized filters (CompiledFilter.canonicalKey) the service answers. Each pod keeps a
+ * Space-Saving sketch and periodically adds its new counts to a Redis sorted set shared by all pods,
+ * together with one JSON copy of each filter so it can be replayed. The sorted set is trimmed to
+ * maxTracked members (trimmed members are removed from the hash too) and its scores are halved
+ * once a day, so old traffic fades out.
+ *
+ *   product_services:filter_traffic                   ZSET    canonical key -> hit count
+ *   product_services:filter_traffic:filters           HASH    canonical key -> GlobalFilterDTO JSON
+ *   product_services:filter_traffic:decayed:<date>    STRING  marker: that day's decay already ran
+ *
+ * Sorted-set updates that read and write (trim, decay) run as single-key Lua scripts, so they are
+ * atomic against other pods' concurrent flushes.
+ */
+@Component
+public class FilterTrafficRecorder {
+    private static final Logger logger = LogManager.getLogger(FilterTrafficRecorder.class);
+
+    static final String COUNTS_KEY = "product_services:filter_traffic";
+    static final String FILTERS_KEY = "product_services:filter_traffic:filters";
+    static final String DECAY_MARKER_PREFIX = "product_services:filter_traffic:decayed:";
+
+    // Removes all but the top ARGV[1] members and returns the removed ones
+    private static final RedisScript<List> TRIM_SCRIPT = new DefaultRedisScript<>(
+        "local trimmed = redis.call('zrange', KEYS[1], 0, -(tonumber(ARGV[1]) + 1)) " +
+        "if #trimmed > 0 then redis.call('zremrangebyrank', KEYS[1], 0, #trimmed - 1) end " +
+        "return trimmed",
+        List.class);
+
+    // Halves every score, removes members that drop below 1 and returns them
+    private static final RedisScript<List> DECAY_SCRIPT = new DefaultRedisScript<>(
+        "local entries = redis.call('zrange', KEYS[1], 0, -1, 'withscores') " +
+        "local dropped = {} " +
+        "for i = 1, #entries, 2 do " +
+        "  local score = math.floor(tonumber(entries[i + 1]) / 2) " +
+        "  if score < 1 then " +
+        "    redis.call('zrem', KEYS[1], entries[i]) " +
+        "    dropped[#dropped + 1] = entries[i] " +
+        "  else " +
+        "    redis.call('zadd', KEYS[1], score, entries[i]) " +
+        "  end " +
+        "end " +
+        "return dropped",
+        List.class);
+
+    @Value("${product.services.warm-set.sketch-capacity:512}")
+    private int sketchCapacity;
+
+    // Members kept in the shared sorted set
+    @Value("${product.services.warm-set.max-tracked:1000}")
+    private int maxTracked;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private SpaceSavingSketch<String> sketch;
+    // Counts not yet flushed to Redis and the filter behind each key (only for keys the sketch tracks)
+    private final ConcurrentMap<String, LongAdder> pendingCounts = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, GlobalFilterDTO> filters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        sketch = new SpaceSavingSketch<>(sketchCapacity);
+    }
+
+    public void record(CompiledFilter filter, GlobalFilterDTO globalFilterDTO) {
+        String key = filter.canonicalKey();
+        String evicted = sketch.offer(key);
+        if (evicted != null) {
+            pendingCounts.remove(evicted);
+            filters.remove(evicted);
+        }
+        filters.putIfAbsent(key, globalFilterDTO);
+        pendingCounts.computeIfAbsent(key, k -> new LongAdder()).increment();
+    }
+
+    @Scheduled(fixedDelayString = "${product.services.warm-set.flush-interval-ms:60000}")
+    public void flush() {
+        if (pendingCounts.isEmpty()) {
+            return;
+        }
+        Map<String, Long> counts = new HashMap<>();
+        for (Map.Entry<String, LongAdder> entry : pendingCounts.entrySet()) {
+            long count = entry.getValue().sumThenReset();
+            if (count > 0) {
+                counts.put(entry.getKey(), count);
+            }
+        }
+        try {
+            Map<String, String> filterJson = new HashMap<>();
+            for (String key : counts.keySet()) {
+                GlobalFilterDTO filter = filters.get(key);
+                if (filter != null) {
+                    filterJson.put(key, objectMapper.writeValueAsString(filter));
+                }
+            }
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) {
+                    for (Map.Entry<String, Long> entry : counts.entrySet()) {
+                        operations.opsForZSet().incrementScore(COUNTS_KEY, entry.getKey(), entry.getValue());
+                    }
+                    operations.opsForHash().putAll(FILTERS_KEY, filterJson);
+                    return null;
+                }
+            });
+            List<String> trimmed = runScript(TRIM_SCRIPT, Integer.toString(maxTracked));
+            if (!trimmed.isEmpty()) {
+                redisTemplate.opsForHash().delete(FILTERS_KEY, trimmed.toArray());
+            }
+            logger.debug("Flushed {} filter traffic counters to Redis, trimmed {}", counts.size(), trimmed.size());
+        } catch (Exception e) {
+            // The local sketch still has the counts; losing one interval of shared counts is acceptable
+            logger.warn("Could not flush filter traffic to Redis: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Halves all shared counts once a day so the warm set follows current traffic. The cron fires on
+     * every pod; a per-day SET NX marker lets only the first one decay.
+     */
+    @Scheduled(cron = "${product.services.warm-set.decay-cron:0 0 3 * * *}")
+    public void decay() {
+        try {
+            String marker = DECAY_MARKER_PREFIX + LocalDate.now(ZoneOffset.UTC);
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(marker, "1", Duration.ofDays(2)))) {
+                logger.debug("Filter traffic already decayed today by another pod");
+                return;
+            }
+            List<String> dropped = runScript(DECAY_SCRIPT);
+            if (!dropped.isEmpty()) {
+                redisTemplate.opsForHash().delete(FILTERS_KEY, dropped.toArray());
+            }
+            logger.info("Decayed filter traffic counters, dropped {} filters", dropped.size());
+        } catch (Exception e) {
+            logger.warn("Could not decay filter traffic counters: {}", e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> runScript(RedisScript<List> script, String... args) {
+        List<String> result = redisTemplate.execute(script, Collections.singletonList(COUNTS_KEY), (Object[]) args);
+        return result != null ? result : Collections.emptyList();
+    }
+
+    /**
+     * The k most frequent filters across all pods (this pod's sketch if Redis is unavailable)
+     */
+    public List<GlobalFilterDTO> topFilters(int k) {
+        try {
+            Set<String> keys = redisTemplate.opsForZSet().reverseRange(COUNTS_KEY, 0, k - 1);
+            if (keys != null && !keys.isEmpty()) {
+                List<Object> jsons = redisTemplate.opsForHash().multiGet(FILTERS_KEY, new ArrayList<>(keys));
+                List<GlobalFilterDTO> top = new ArrayList<>(jsons.size());
+                for (Object json : jsons) {
+                    if (json != null) {
+                        top.add(objectMapper.readValue((String) json, GlobalFilterDTO.class));
+                    }
+                }
+                return top;
+            }
+        } catch (Exception e) {
+            logger.warn("Could not read filter traffic from Redis, using local counts: {}", e.getMessage());
+        }
+        List<GlobalFilterDTO> top = new ArrayList<>();
+        for (String key : sketch.topK(k)) {
+            GlobalFilterDTO filter = filters.get(key);
+            if (filter != null) {
+                top.add(filter);
+            }
+        }
+        return top;
+    }
+}
+
+// 3. Configuration Example
+/*
+# application.properties
+product.services.warm-set.size=20                  # top-K filters warmed after each snapshot publish
+product.services.warm-set.sketch-capacity=512
+product.services.warm-set.max-tracked=1000
+product.services.warm-set.flush-interval-ms=60000
+product.services.warm-set.decay-cron=0 0 3 * * *
+*/
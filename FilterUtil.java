@@ -2,6 +2,7 @@ package com.example.filters;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
@@ -17,6 +18,9 @@ import java.util.stream.Collectors;
 public class QueryFilterUtil {
     private static final Logger logger = LoggerFactory.getLogger(QueryFilterUtil.class);
 
+    // IN-lists are padded to a power of two, but never below this many placeholders
+    static final int MIN_IN_BUCKET = 4;
+
     /**
      * Builds a complete SQL query by applying filters from GlobalFilterDTO
      * 
@@ -130,6 +134,86 @@ public class QueryFilterUtil {
         }
     }
     
+    /**
+     * Same filters as buildFilteredQuery, but values are bound as parameters instead of inlined,
+     * so every filter with the same columns and IN-list buckets produces the same SQL text
+     * 
+     * @param baseQuery The base SQL query (with or without WHERE clause)
+     * @param filterDTO The DTO containing filter values
+     * @return SQL and parameters for NamedParameterJdbcTemplate
+     */
+    public ParameterizedQuery buildParameterizedQuery(String baseQuery, GlobalFilterDTO filterDTO) {
+        if (filterDTO == null) {
+            return new ParameterizedQuery(baseQuery, new MapSqlParameterSource());
+        }
+        return buildParameterizedDynamicQuery(baseQuery, convertDtoToMap(filterDTO));
+    }
+    
+    /**
+     * Parameterized counterpart of buildDynamicQuery. Keys are trusted column names (optionally
+     * followed by an operator, see addLikeCondition / addComparisonCondition); values are bound.
+     * List values become IN-lists padded to a power of two (at least MIN_IN_BUCKET) by repeating
+     * the last value, which does not change the result but keeps the number of distinct SQL texts
+     * logarithmic in the list length. Nothing is cached here: the gain is on the warehouse side,
+     * which can reuse its plan/result cache for repeated SQL text.
+     * 
+     * @param baseQuery The base SQL query
+     * @param filterMap Map of column names to filter values
+     * @return SQL and parameters for NamedParameterJdbcTemplate
+     */
+    public ParameterizedQuery buildParameterizedDynamicQuery(String baseQuery, Map<String, Object> filterMap) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (filterMap == null || filterMap.isEmpty()) {
+            return new ParameterizedQuery(baseQuery, params);
+        }
+        
+        List<String> conditions = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : filterMap.entrySet()) {
+            Object value = entry.getValue();
+            if (value == null || (value instanceof List && ((List<?>) value).isEmpty())) {
+                continue;
+            }
+            // Parameter names depend only on position, so equal shapes get equal SQL
+            String param = "p" + conditions.size();
+            String column = entry.getKey().trim();
+            if (value instanceof List) {
+                params.addValue(param, padToBucket((List<?>) value));
+                conditions.add(column + " in (:" + param + ")");
+            } else if (column.indexOf(' ') > 0) {
+                // "client_name LIKE", "annual_revenue >=" ...
+                params.addValue(param, value);
+                conditions.add(column + " :" + param);
+            } else {
+                params.addValue(param, value);
+                conditions.add(column + " = :" + param);
+            }
+        }
+        
+        if (conditions.isEmpty()) {
+            return new ParameterizedQuery(baseQuery, params);
+        }
+        
+        String whereClause = String.join(" AND ", conditions);
+        String sql = baseQuery.toLowerCase().contains(" where ")
+            ? baseQuery + " AND " + whereClause
+            : baseQuery + " WHERE " + whereClause;
+        return new ParameterizedQuery(sql, params);
+    }
+    
+    /**
+     * Pads values to the next power of two (at least MIN_IN_BUCKET) by repeating the last value
+     */
+    static List<Object> padToBucket(List<?> values) {
+        int bucket = Math.max(MIN_IN_BUCKET, Integer.highestOneBit(Math.max(1, values.size() - 1)) << 1);
+        List<Object> padded = new ArrayList<>(bucket);
+        padded.addAll(values);
+        Object last = values.get(values.size() - 1);
+        while (padded.size() < bucket) {
+            padded.add(last);
+        }
+        return padded;
+    }
+    
     /**
      * Helper method to build IN clause based on value type
      */
@@ -186,8 +270,8 @@ public class QueryFilterUtil {
      */
     public void addLikeCondition(Map<String, Object> filterMap, String column, String value) {
         if (value != null && !value.trim().isEmpty()) {
-            // Add % wildcards for partial matching
-            filterMap.put(column + " LIKE ", "%" + value.replace("'", "''") + "%");
+            // Add % wildcards for partial matching (quotes are escaped by buildDynamicQuery, or bound)
+            filterMap.put(column + " LIKE ", "%" + value + "%");
         }
     }
     
@@ -204,6 +288,17 @@ public class QueryFilterUtil {
 ===========================
 package com.example.filters;
 
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+/**
+ * SQL with named parameters, as produced by QueryFilterUtil.buildParameterizedQuery.
+ * Run it with NamedParameterJdbcTemplate: namedJdbcTemplate.queryForList(query.sql(), query.params())
+ */
+public record ParameterizedQuery(String sql, MapSqlParameterSource params) {
+}
+===========================
+package com.example.filters;
+
 import java.util.List;
 
 /**
@@ -266,9 +361,11 @@ public class GlobalFilterDTO {
 package com.example.demo;
 
 import com.example.filters.GlobalFilterDTO;
+import com.example.filters.ParameterizedQuery;
 import com.example.filters.QueryFilterUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
@@ -307,6 +404,18 @@ public class QueryFilterUsageExample {
         return jdbcTemplate.queryForList(finalQuery);
     }
     
+    /**
+     * Same as /clients, but with bound parameters - repeated filters reuse the same SQL text
+     */
+    @PostMapping("/clients-parameterized")
+    public List<Map<String, Object>> getClientsParameterized(@RequestBody GlobalFilterDTO filterDTO) {
+        String baseQuery = "SELECT client_id, client_name FROM client_table";
+        ParameterizedQuery query = queryFilterUtil.buildParameterizedQuery(baseQuery, filterDTO);
+        
+        NamedParameterJdbcTemplate namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        return namedParameterJdbcTemplate.queryForList(query.sql(), query.params());
+    }
+    
     /**
      * Example of using the utility with Map-based filters for more flexibility
      */
@@ -529,3 +638,13 @@ public List<Map<String, Object>> searchClients(GlobalFilterDTO filterDTO, String
     String finalQuery = queryFilterUtil.buildDynamicQuery(baseQuery, allFilters);
     return jdbcTemplate.queryForList(finalQuery);
 }
+=====================
+Parameterized Usage (stable SQL text, values bound)
+===========================================
+public List<Map<String, Object>> getClientsParameterized(GlobalFilterDTO filterDTO) {
+    // client = [1, 3, 4, 5, 7] -> "... WHERE mdm_gems_ult_parent_id in (:p0)" with p0 padded to 8 values,
+    // expanded by NamedParameterJdbcTemplate to 8 placeholders - same text for any 5 to 8 clients
+    ParameterizedQuery query = queryFilterUtil.buildParameterizedQuery(
+        "SELECT client_id, client_name FROM client_table", filterDTO);
+    return namedParameterJdbcTemplate.queryForList(query.sql(), query.params());
+}
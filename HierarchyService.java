@@ -1,14 +1,31 @@
+// 1. Hierarchy Service
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
 // Assuming YourRepository fetches the data
 // import com.yourcompany.repository.YourRepository; 
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,6 +37,36 @@ public class HierarchyService {
     // @Autowired
     // private YourRepository repository;
 
+    // Parallel assembly is opt-in; below the threshold the sequential builder is used
+    @Value("${hierarchy.parallel.enabled:false}")
+    private boolean parallelEnabled;
+
+    @Value("${hierarchy.parallel.threshold:50000}")
+    private int parallelThreshold;
+
+    @Value("${hierarchy.parallel.parallelism:0}") // 0 = number of available processors
+    private int parallelism;
+
+    // Dedicated pool so hierarchy assembly does not compete with the common pool
+    private ForkJoinPool hierarchyPool;
+
+    @PostConstruct
+    public void initHierarchyPool() {
+        if (parallelEnabled) {
+            int poolSize = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+            hierarchyPool = new ForkJoinPool(poolSize);
+            log.info("Parallel hierarchy assembly enabled (parallelism: {}, threshold: {} rows)",
+                    poolSize, parallelThreshold);
+        }
+    }
+
+    @PreDestroy
+    public void shutdownHierarchyPool() {
+        if (hierarchyPool != null) {
+            hierarchyPool.shutdown();
+        }
+    }
+
     public List<ParentData> buildHierarchy(List<RepositoryResponseItem> flatData) {
         if (flatData == null || flatData.isEmpty()) {
             return Collections.emptyList();
@@ -28,133 +75,248 @@ public class HierarchyService {
         long startTime = System.currentTimeMillis();
         log.info("Starting hierarchy build for {} items.", flatData.size());
 
-        // --- Step 1: Group by Parent ID ---
-        // Creates a Map where Key = parentId (String), Value = List of items for that parent
-        Map<String, List<RepositoryResponseItem>> itemsByParent = flatData.stream()
-                // Consider parallelStream() for very large datasets, but benchmark first!
-                // .parallelStream() 
-                .collect(Collectors.groupingBy(RepositoryResponseItem::parentId));
-
-        // --- Step 2: Process each Parent Group ---
-        List<ParentData> result = new ArrayList<>();
-        itemsByParent.forEach((parentIdStr, parentItems) -> {
-
-            // Get representative item for parent details (assuming they are consistent)
-            RepositoryResponseItem representativeParentItem = parentItems.get(0);
-
-            // --- Step 2a: Group Parent's Items by Client ID ---
-            // Creates a Map where Key = clientId (String), Value = List of items for that client (under this parent)
-            Map<String, List<RepositoryResponseItem>> itemsByClient = parentItems.stream()
-                    .collect(Collectors.groupingBy(RepositoryResponseItem::mdmClientGemsId));
-
-            List<ClientData> clientSubRows = new ArrayList<>();
-            itemsByClient.forEach((clientId, clientItems) -> {
-
-                // Get representative item for client details
-                RepositoryResponseItem representativeClientItem = clientItems.get(0);
-
-                // --- Step 2b: Group Client's Items by Customer ID ---
-                // Creates a Map where Key = customerId (String), Value = List of items for that customer (often size 1)
-                Map<String, List<RepositoryResponseItem>> itemsByCustomer = clientItems.stream()
-                        .collect(Collectors.groupingBy(RepositoryResponseItem::mdmCustGemsId));
-
-                List<CustomerData> customerSubRows = new ArrayList<>();
-                itemsByCustomer.forEach((customerId, customerItems) -> {
-                    // Usually only one item per customer in this structure
-                    RepositoryResponseItem customerItem = customerItems.get(0);
-
-                    // --- Step 2c: Create CustomerData ---
-                    CustomerData customerData = new CustomerData(
-                            customerId,
-                            clientId, // Parent is the Client ID
-                            customerItem.customerName(),
-                            "Customer",
-                            representativeParentItem.segment(), // Inherit from parent
-                            representativeParentItem.region(),  // Inherit from parent
-                            customerItem.aPlatformCustomerCount(),
-                            customerItem.alphaServicesCustomerCount(),
-                            customerItem.backOfficeCustomerCount(),
-                            customerItem.custodyCustomerCount(),
-                            customerItem.digitalCustomerCount(),
-                            customerItem.globalMarketsCustomerCount(),
-                            customerItem.middleOfficeCustomerCount(), // check name consistency
-                            customerItem.ssgaCustomerCount(),
-                            customerItem.treasuryCustomerCount(),
-                            Collections.emptyList() // Empty detailData as requested
-                    );
-                    customerSubRows.add(customerData);
-                }); // End Customer processing
-
-                // --- Step 2d: Create ClientData ---
-                 long parentIdLong;
-                 try {
-                     parentIdLong = Long.parseLong(parentIdStr);
-                 } catch (NumberFormatException e) {
-                     log.error("Invalid parent_id format: {}. Skipping client hierarchy for this parent.", parentIdStr, e);
-                     // Decide how to handle - skip this client/parent, use a default, etc.
-                     // Here we skip adding this client by returning from the lambda for this client
-                     return; 
-                 }
-
-                ClientData clientData = new ClientData(
-                        clientId,
-                        parentIdLong, // Parent is the Parent ID (parsed)
-                        representativeClientItem.clientName(),
-                        "Client",
-                        representativeParentItem.segment(), // Inherit from parent
-                        representativeParentItem.region(),  // Inherit from parent
-                        representativeClientItem.aPlatformClientCount(), // Add null checks if needed
-                        representativeClientItem.alphaServicesClientCount(),
-                        representativeClientItem.backOfficeClientCount(),
-                        representativeClientItem.custodyClientCount(),
-                        representativeClientItem.digitalClientCount(),
-                        representativeClientItem.globalMarketsClientCount(),
-                        representativeClientItem.middleOfficeClientCount(),
-                        representativeClientItem.ssgaClientCount(),
-                        representativeClientItem.treasuryClientCount(),
-                        customerSubRows // Attach the processed customers
-                );
-                clientSubRows.add(clientData);
-
-            }); // End Client processing
-
-
-            // --- Step 2e: Create ParentData ---
-             long parentIdLong;
-             try {
-                 parentIdLong = Long.parseLong(parentIdStr);
-             } catch (NumberFormatException e) {
-                 log.error("Invalid parent_id format: {}. Skipping parent hierarchy.", parentIdStr, e);
-                  // Decide how to handle - skip this parent, use a default, etc.
-                  // Here we skip adding this parent by returning from the lambda for this parent
-                 return; 
-             }
-
-            ParentData parentData = new ParentData(
-                    parentIdLong,
-                    representativeParentItem.parentName(),
+        List<ParentData> result;
+        if (hierarchyPool != null && flatData.size() >= parallelThreshold) {
+            // Fork-join: contiguous slices are folded concurrently and merged left to right,
+            // so the result is identical to the sequential build
+            int leafSize = Math.max(MIN_LEAF_SIZE, flatData.size() / (hierarchyPool.getParallelism() * 4));
+            HierarchyBuilder builder = hierarchyPool.invoke(
+                    new HierarchyAssemblyTask(flatData, 0, flatData.size(), leafSize));
+            result = builder.build(hierarchyPool);
+        } else {
+            // Single pass: each row is folded into its parent/client/customer node as it is visited,
+            // so no intermediate grouping maps are created per level.
+            HierarchyBuilder builder = new HierarchyBuilder();
+            for (RepositoryResponseItem item : flatData) {
+                builder.accept(item);
+            }
+            result = builder.build();
+        }
+
+        long endTime = System.currentTimeMillis();
+        log.info("Hierarchy build completed in {} ms. Result size: {}", (endTime - startTime), result.size());
+
+        return result;
+    }
+
+    private static final int MIN_LEAF_SIZE = 4096;
+
+    /**
+     * Folds a slice [from, to) of the flat data into a HierarchyBuilder, splitting in half
+     * until the slice is at most leafSize rows.
+     */
+    private static final class HierarchyAssemblyTask extends RecursiveTask<HierarchyBuilder> {
+        private final List<RepositoryResponseItem> items;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        HierarchyAssemblyTask(List<RepositoryResponseItem> items, int from, int to, int leafSize) {
+            this.items = items;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected HierarchyBuilder compute() {
+            if (to - from <= leafSize) {
+                HierarchyBuilder builder = new HierarchyBuilder();
+                for (int i = from; i < to; i++) {
+                    builder.accept(items.get(i));
+                }
+                return builder;
+            }
+            int mid = (from + to) >>> 1;
+            HierarchyAssemblyTask left = new HierarchyAssemblyTask(items, from, mid, leafSize);
+            HierarchyAssemblyTask right = new HierarchyAssemblyTask(items, mid, to, leafSize);
+            right.fork();
+            HierarchyBuilder leftResult = left.compute();
+            // Left slice precedes right slice, so merging into left keeps first-seen semantics
+            return leftResult.merge(right.join());
+        }
+    }
+
+    /**
+     * Accumulates rows into parent -> client -> customer nodes in one pass.
+     * The first row seen for a parent/client/customer is its representative, which matches
+     * the previous groupingBy(...).get(0) behaviour. Records are only created in build().
+     */
+    static class HierarchyBuilder implements Consumer<RepositoryResponseItem> {
+
+        private final Map<String, ParentNode> parents = new LinkedHashMap<>();
+        private final Set<String> invalidParentIds = new HashSet<>();
+
+        @Override
+        public void accept(RepositoryResponseItem item) {
+            String parentIdStr = item.parentId();
+            ParentNode parent = parents.get(parentIdStr);
+            if (parent == null) {
+                if (invalidParentIds.contains(parentIdStr)) {
+                    return;
+                }
+                long parentIdLong;
+                try {
+                    // Parsed once per parent instead of once per client
+                    parentIdLong = Long.parseLong(parentIdStr);
+                } catch (NumberFormatException e) {
+                    log.error("Invalid parent_id format: {}. Skipping parent hierarchy.", parentIdStr, e);
+                    invalidParentIds.add(parentIdStr);
+                    return;
+                }
+                parent = new ParentNode(parentIdLong, item);
+                parents.put(parentIdStr, parent);
+            }
+
+            ClientNode client = parent.clients.get(item.mdmClientGemsId());
+            if (client == null) {
+                client = new ClientNode(item);
+                parent.clients.put(item.mdmClientGemsId(), client);
+            }
+
+            // Usually only one item per customer; keep the first one
+            client.customers.putIfAbsent(item.mdmCustGemsId(), item);
+        }
+
+        /**
+         * Merges a builder that saw later rows into this one. Nodes already present here keep
+         * their representative; new clients and customers are appended in their insertion order.
+         */
+        HierarchyBuilder merge(HierarchyBuilder later) {
+            invalidParentIds.addAll(later.invalidParentIds);
+            later.parents.forEach((parentIdStr, laterParent) -> {
+                ParentNode parent = parents.get(parentIdStr);
+                if (parent == null) {
+                    parents.put(parentIdStr, laterParent);
+                    return;
+                }
+                laterParent.clients.forEach((clientId, laterClient) -> {
+                    ClientNode client = parent.clients.get(clientId);
+                    if (client == null) {
+                        parent.clients.put(clientId, laterClient);
+                    } else {
+                        laterClient.customers.forEach(client.customers::putIfAbsent);
+                    }
+                });
+            });
+            return this;
+        }
+
+        /**
+         * Parents are ordered by parent id (stable, so ties keep insertion order);
+         * clients and customers keep the order in which they were first seen.
+         */
+        List<ParentData> build() {
+            List<ParentNode> nodes = sortedParents();
+            List<ParentData> result = new ArrayList<>(nodes.size());
+            for (ParentNode parent : nodes) {
+                result.add(parent.toParentData());
+            }
+            return result;
+        }
+
+        /**
+         * Same as build(), but the ParentData/ClientData/CustomerData subtrees are created
+         * concurrently on the given pool. The ordered stream keeps the parent order.
+         */
+        List<ParentData> build(ForkJoinPool pool) {
+            List<ParentNode> nodes = sortedParents();
+            return pool.submit(() -> nodes.parallelStream()
+                    .map(ParentNode::toParentData)
+                    .collect(Collectors.toList())).join();
+        }
+
+        private List<ParentNode> sortedParents() {
+            List<ParentNode> nodes = new ArrayList<>(parents.values());
+            nodes.sort(Comparator.comparingLong(node -> node.id));
+            return nodes;
+        }
+    }
+
+    private static final class ParentNode {
+        final long id;
+        final RepositoryResponseItem representative;
+        final Map<String, ClientNode> clients = new LinkedHashMap<>();
+
+        ParentNode(long id, RepositoryResponseItem representative) {
+            this.id = id;
+            this.representative = representative;
+        }
+
+        ParentData toParentData() {
+            List<ClientData> clientSubRows = new ArrayList<>(clients.size());
+            clients.forEach((clientId, client) -> clientSubRows.add(client.toClientData(clientId, this)));
+
+            return new ParentData(
+                    id,
+                    representative.parentName(),
                     "Parent",
-                    representativeParentItem.segment(),
-                    representativeParentItem.region(),
-                    representativeParentItem.aPlatformParentCount(),
-                    representativeParentItem.alphaServicesParentCount(),
-                    representativeParentItem.backOfficeParentCount(),
-                    representativeParentItem.custodyParentCount(),
-                    representativeParentItem.digitalParentCount(),
-                    representativeParentItem.globalMarketsParentCount(),
-                    representativeParentItem.middleOfficeParentCount(), // Check name consistency
-                    representativeParentItem.ssgaParentCount(),
-                    representativeParentItem.treasuryParentCount(),
+                    representative.segment(),
+                    representative.region(),
+                    representative.aPlatformParentCount(),
+                    representative.alphaServicesParentCount(),
+                    representative.backOfficeParentCount(),
+                    representative.custodyParentCount(),
+                    representative.digitalParentCount(),
+                    representative.globalMarketsParentCount(),
+                    representative.middleOfficeParentCount(), // Check name consistency
+                    representative.ssgaParentCount(),
+                    representative.treasuryParentCount(),
                     clientSubRows // Attach the processed clients
             );
-            result.add(parentData);
+        }
+    }
 
-        }); // End Parent processing
+    private static final class ClientNode {
+        final RepositoryResponseItem representative;
+        final Map<String, RepositoryResponseItem> customers = new LinkedHashMap<>();
 
-        long endTime = System.currentTimeMillis();
-        log.info("Hierarchy build completed in {} ms. Result size: {}", (endTime - startTime), result.size());
+        ClientNode(RepositoryResponseItem representative) {
+            this.representative = representative;
+        }
 
-        return result;
+        ClientData toClientData(String clientId, ParentNode parent) {
+            RepositoryResponseItem parentItem = parent.representative;
+
+            List<CustomerData> customerSubRows = new ArrayList<>(customers.size());
+            customers.forEach((customerId, customerItem) -> customerSubRows.add(new CustomerData(
+                    customerId,
+                    clientId, // Parent is the Client ID
+                    customerItem.customerName(),
+                    "Customer",
+                    parentItem.segment(), // Inherit from parent
+                    parentItem.region(),  // Inherit from parent
+                    customerItem.aPlatformCustomerCount(),
+                    customerItem.alphaServicesCustomerCount(),
+                    customerItem.backOfficeCustomerCount(),
+                    customerItem.custodyCustomerCount(),
+                    customerItem.digitalCustomerCount(),
+                    customerItem.globalMarketsCustomerCount(),
+                    customerItem.middleOfficeCustomerCount(), // check name consistency
+                    customerItem.ssgaCustomerCount(),
+                    customerItem.treasuryCustomerCount(),
+                    Collections.emptyList() // Empty detailData as requested
+            )));
+
+            return new ClientData(
+                    clientId,
+                    parent.id, // Parent is the Parent ID (parsed once per parent)
+                    representative.clientName(),
+                    "Client",
+                    parentItem.segment(), // Inherit from parent
+                    parentItem.region(),  // Inherit from parent
+                    representative.aPlatformClientCount(),
+                    representative.alphaServicesClientCount(),
+                    representative.backOfficeClientCount(),
+                    representative.custodyClientCount(),
+                    representative.digitalClientCount(),
+                    representative.globalMarketsClientCount(),
+                    representative.middleOfficeClientCount(),
+                    representative.ssgaClientCount(),
+                    representative.treasuryClientCount(),
+                    customerSubRows // Attach the processed customers
+            );
+        }
     }
 
     // --- Example of how you might call this from a controller ---
@@ -166,14 +328,169 @@ public class HierarchyService {
 
 }
 
+// 2. Index-Based Row Mapper
+/**
+ * Same result as RepositoryResponseItemRowMapper, but column labels are resolved to indexes once
+ * per ResultSet (from its metadata) and every value is read by index, so the driver's
+ * case-insensitive label lookup runs 35 times per query instead of 35 times per row.
+ *
+ * Repeating values (parent/client ids and names, segment, region) are interned through a
+ * dictionary owned by the mapper, so all rows of a parent share one String instance. Use one
+ * mapper instance per query; it is not thread-safe.
+ */
+final class IndexedRepositoryResponseItemRowMapper implements RowMapper<RepositoryResponseItem> {
+
+    // Record component order: 8 strings, then the 27 counts
+    static final String[] STRING_COLUMNS = {
+            "parent_name", "parent_id", "mdm_client_gems_id", "mdm_cust_gems_id",
+            "segment", "region", "client_name", "customer_name"
+    };
+
+    // Columns whose values repeat across rows and are worth interning (indexes into STRING_COLUMNS)
+    private static final boolean[] INTERNED = {true, true, true, false, true, true, true, false};
+
+    static final String[] COUNT_COLUMNS = {
+            "alpha_Services_Parent_Count", "global_Markets_Client_Count", "a_Platform_Parent_Count",
+            "back_Office_Parent_Count", "custody_Parent_Count", "digital_Parent_Count",
+            "global_Markets_Parent_Count", "middleOffice_Parent_Count", "ssga_Parent_Count",
+            "treasury_Parent_Count", "a_Platform_Client_Count", "alpha_Services_Client_Count",
+            "back_Office_Client_Count", "custody_Client_Count", "digital_Client_Count",
+            "middleOffice_Client_Count", "ssga_Client_Count", "treasury_Client_Count",
+            "a_Platform_Customer_Count", "alpha_Services_Customer_Count", "back_Office_Customer_Count",
+            "custody_Customer_Count", "digital_Customer_Count", "global_Markets_Customer_Count",
+            "middle_Office_Customer_Count", "ssga_Customer_Count", "treasury_Customer_Count"
+    };
+
+    // Stop interning new values past this size (protects against unexpectedly high-cardinality data)
+    private static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+    private final Map<String, String> dictionary = new HashMap<>();
+    private ResultSet resolvedFor;
+    private int[] stringIndexes;
+    private int[] countIndexes;
+
+    @Override
+    public RepositoryResponseItem mapRow(ResultSet rs, int rowNum) throws SQLException {
+        if (rs != resolvedFor) {
+            resolveIndexes(rs);
+        }
+
+        String[] s = new String[STRING_COLUMNS.length];
+        for (int i = 0; i < s.length; i++) {
+            String value = rs.getString(stringIndexes[i]);
+            s[i] = INTERNED[i] ? intern(value) : value;
+        }
+        int[] c = new int[COUNT_COLUMNS.length];
+        for (int i = 0; i < c.length; i++) {
+            c[i] = rs.getInt(countIndexes[i]); // SQL NULL maps to 0
+        }
 
+        return new RepositoryResponseItem(
+                s[0], s[1], s[2], s[3], s[4], s[5], s[6], s[7],
+                c[0], c[1], c[2], c[3], c[4], c[5], c[6], c[7], c[8],
+                c[9], c[10], c[11], c[12], c[13], c[14], c[15], c[16], c[17],
+                c[18], c[19], c[20], c[21], c[22], c[23], c[24], c[25], c[26]
+        );
+    }
 
+    private void resolveIndexes(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        Map<String, Integer> byLabel = new HashMap<>();
+        for (int i = metaData.getColumnCount(); i >= 1; i--) {
+            // Iterate backwards so the first column wins for duplicate labels, like findColumn
+            byLabel.put(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+        }
+        stringIndexes = indexesOf(STRING_COLUMNS, byLabel);
+        countIndexes = indexesOf(COUNT_COLUMNS, byLabel);
+        resolvedFor = rs;
+    }
 
+    private static int[] indexesOf(String[] labels, Map<String, Integer> byLabel) throws SQLException {
+        int[] indexes = new int[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            Integer index = byLabel.get(labels[i].toLowerCase(Locale.ROOT));
+            if (index == null) {
+                throw new SQLException("Column '" + labels[i] + "' not found in result set");
+            }
+            indexes[i] = index;
+        }
+        return indexes;
+    }
 
+    private String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String existing = dictionary.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        if (dictionary.size() < MAX_DICTIONARY_SIZE) {
+            dictionary.put(value, value);
+        }
+        return value;
+    }
+}
 
 
+// 3. Row Mapper for ProductServiceHierarchyRecordDTO
+/**
+ * Same columns as RepositoryResponseItemRowMapper plus country. Counts are listed in record
+ * component order (see ProductServicesSnapshot.COUNT_ACCESSORS).
+ */
+public class ProductServiceHierarchyRecordRowMapper implements RowMapper<ProductServiceHierarchyRecordDTO> {
+
+    static final String[] COUNT_COLUMNS = {
+        "alpha_Services_Parent_Count",
+        "global_Markets_Client_Count",
+        "a_Platform_Parent_Count",
+        "back_Office_Parent_Count",
+        "custody_Parent_Count",
+        "digital_Parent_Count",
+        "global_Markets_Parent_Count",
+        "middleOffice_Parent_Count",
+        "ssga_Parent_Count",
+        "treasury_Parent_Count",
+        "a_Platform_Client_Count",
+        "alpha_Services_Client_Count",
+        "back_Office_Client_Count",
+        "custody_Client_Count",
+        "digital_Client_Count",
+        "middleOffice_Client_Count",
+        "ssga_Client_Count",
+        "treasury_Client_Count",
+        "a_Platform_Customer_Count",
+        "alpha_Services_Customer_Count",
+        "back_Office_Customer_Count",
+        "custody_Customer_Count",
+        "digital_Customer_Count",
+        "global_Markets_Customer_Count",
+        "middle_Office_Customer_Count",
+        "ssga_Customer_Count",
+        "treasury_Customer_Count"
+    };
 
+    @Override
+    public ProductServiceHierarchyRecordDTO mapRow(ResultSet rs, int rowNum) throws SQLException {
+        int[] counts = new int[COUNT_COLUMNS.length];
+        for (int col = 0; col < COUNT_COLUMNS.length; col++) {
+            counts[col] = rs.getInt(COUNT_COLUMNS[col]); // SQL NULL maps to 0
+        }
+        return ProductServicesSnapshot.newRecord(
+            rs.getString("parent_name"),
+            rs.getString("parent_id"),
+            rs.getString("mdm_client_gems_id"),
+            rs.getString("mdm_cust_gems_id"),
+            rs.getString("segment"),
+            rs.getString("region"),
+            rs.getString("client_name"),
+            rs.getString("customer_name"),
+            counts, 0,
+            rs.getString("country"));
+    }
+}
 
+// 4. Reference Snippets (controller, label-based mapper, DTOs) - not compiled
 /*
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -234,39 +551,40 @@ public class RepositoryResponseItemRowMapper implements RowMapper<RepositoryResp
         String clientName = rs.getString("client_name");
         String customerName = rs.getString("customer_name");
 
+        // Counts are read as primitives: no String per count column, and SQL NULL maps to 0
         // Parent Counts
-        String alphaServicesParentCount = rs.getString("alpha_Services_Parent_Count");
-        String aPlatformParentCount = rs.getString("a_Platform_Parent_Count");
-        String backOfficeParentCount = rs.getString("back_Office_Parent_Count");
-        String custodyParentCount = rs.getString("custody_Parent_Count");
-        String digitalParentCount = rs.getString("digital_Parent_Count");
-        String globalMarketsParentCount = rs.getString("global_Markets_Parent_Count");
-        String middleOfficeParentCount = rs.getString("middleOffice_Parent_Count"); // Check consistency
-        String ssgaParentCount = rs.getString("ssga_Parent_Count");
-        String treasuryParentCount = rs.getString("treasury_Parent_Count");
+        int alphaServicesParentCount = rs.getInt("alpha_Services_Parent_Count");
+        int aPlatformParentCount = rs.getInt("a_Platform_Parent_Count");
+        int backOfficeParentCount = rs.getInt("back_Office_Parent_Count");
+        int custodyParentCount = rs.getInt("custody_Parent_Count");
+        int digitalParentCount = rs.getInt("digital_Parent_Count");
+        int globalMarketsParentCount = rs.getInt("global_Markets_Parent_Count");
+        int middleOfficeParentCount = rs.getInt("middleOffice_Parent_Count"); // Check consistency
+        int ssgaParentCount = rs.getInt("ssga_Parent_Count");
+        int treasuryParentCount = rs.getInt("treasury_Parent_Count");
 
         // Client Counts
-        String globalMarketsClientCount = rs.getString("global_Markets_Client_Count");
-        String aPlatformClientCount = rs.getString("a_Platform_Client_Count");
-        String alphaServicesClientCount = rs.getString("alpha_Services_Client_Count");
-        String backOfficeClientCount = rs.getString("back_Office_Client_Count");
-        String custodyClientCount = rs.getString("custody_Client_Count");
-        String digitalClientCount = rs.getString("digital_Client_Count");
-        String middleOfficeClientCount = rs.getString("middleOffice_Client_Count");
-        String ssgaClientCount = rs.getString("ssga_Client_Count");
-        String treasuryClientCount = rs.getString("treasury_Client_Count");
+        int globalMarketsClientCount = rs.getInt("global_Markets_Client_Count");
+        int aPlatformClientCount = rs.getInt("a_Platform_Client_Count");
+        int alphaServicesClientCount = rs.getInt("alpha_Services_Client_Count");
+        int backOfficeClientCount = rs.getInt("back_Office_Client_Count");
+        int custodyClientCount = rs.getInt("custody_Client_Count");
+        int digitalClientCount = rs.getInt("digital_Client_Count");
+        int middleOfficeClientCount = rs.getInt("middleOffice_Client_Count");
+        int ssgaClientCount = rs.getInt("ssga_Client_Count");
+        int treasuryClientCount = rs.getInt("treasury_Client_Count");
 
 
         // Customer Counts
-        String aPlatformCustomerCount = rs.getString("a_Platform_Customer_Count");
-        String alphaServicesCustomerCount = rs.getString("alpha_Services_Customer_Count");
-        String backOfficeCustomerCount = rs.getString("back_Office_Customer_Count");
-        String custodyCustomerCount = rs.getString("custody_Customer_Count");
-        String digitalCustomerCount = rs.getString("digital_Customer_Count");
-        String globalMarketsCustomerCount = rs.getString("global_Markets_Customer_Count");
-        String middleOfficeCustomerCount = rs.getString("middle_Office_Customer_Count"); // Check consistency
-        String ssgaCustomerCount = rs.getString("ssga_Customer_Count");
-        String treasuryCustomerCount = rs.getString("treasury_Customer_Count");
+        int aPlatformCustomerCount = rs.getInt("a_Platform_Customer_Count");
+        int alphaServicesCustomerCount = rs.getInt("alpha_Services_Customer_Count");
+        int backOfficeCustomerCount = rs.getInt("back_Office_Customer_Count");
+        int custodyCustomerCount = rs.getInt("custody_Customer_Count");
+        int digitalCustomerCount = rs.getInt("digital_Customer_Count");
+        int globalMarketsCustomerCount = rs.getInt("global_Markets_Customer_Count");
+        int middleOfficeCustomerCount = rs.getInt("middle_Office_Customer_Count"); // Check consistency
+        int ssgaCustomerCount = rs.getInt("ssga_Customer_Count");
+        int treasuryCustomerCount = rs.getInt("treasury_Customer_Count");
 
 
         // Construct the RepositoryResponseItem record using the extracted values
@@ -318,6 +636,7 @@ import java.util.Collections; // For empty list
 
 // --- Input Data Model ---
 // Represents one row from your repository response
+// Count columns are primitive ints (JSON names unchanged, values are serialized as numbers)
 record RepositoryResponseItem(
     @JsonProperty("parent_name") String parentName,
     @JsonProperty("parent_id") String parentId,
@@ -327,39 +646,39 @@ record RepositoryResponseItem(
     String region,  // Already correct naming convention
     @JsonProperty("client_name") String clientName,
     @JsonProperty("customer_name") String customerName,
-    @JsonProperty("alpha_Services_Parent_Count") String alphaServicesParentCount,
-    @JsonProperty("global_Markets_Client_Count") String globalMarketsClientCount,
+    @JsonProperty("alpha_Services_Parent_Count") int alphaServicesParentCount,
+    @JsonProperty("global_Markets_Client_Count") int globalMarketsClientCount,
     // Add ALL other count fields from your input JSON here...
     // It's important to include all fields you need for mapping
-    @JsonProperty("a_Platform_Parent_Count") String aPlatformParentCount,
-    @JsonProperty("back_Office_Parent_Count") String backOfficeParentCount,
-    @JsonProperty("custody_Parent_Count") String custodyParentCount,
-    @JsonProperty("digital_Parent_Count") String digitalParentCount,
-    @JsonProperty("global_Markets_Parent_Count") String globalMarketsParentCount,
-    @JsonProperty("middleOffice_Parent_Count") String middleOfficeParentCount, // Note: "middleOffice" vs "middle_Office" inconsistency in input? Standardize if possible. Assuming middleOffice based on target.
-    @JsonProperty("ssga_Parent_Count") String ssgaParentCount,
-    @JsonProperty("treasury_Parent_Count") String treasuryParentCount,
-
-    @JsonProperty("a_Platform_Client_Count") String aPlatformClientCount,
-    @JsonProperty("alpha_Services_Client_Count") String alphaServicesClientCount,
-    @JsonProperty("back_Office_Client_Count") String backOfficeClientCount,
-    @JsonProperty("custody_Client_Count") String custodyClientCount,
-    @JsonProperty("digital_Client_Count") String digitalClientCount,
+    @JsonProperty("a_Platform_Parent_Count") int aPlatformParentCount,
+    @JsonProperty("back_Office_Parent_Count") int backOfficeParentCount,
+    @JsonProperty("custody_Parent_Count") int custodyParentCount,
+    @JsonProperty("digital_Parent_Count") int digitalParentCount,
+    @JsonProperty("global_Markets_Parent_Count") int globalMarketsParentCount,
+    @JsonProperty("middleOffice_Parent_Count") int middleOfficeParentCount, // Note: "middleOffice" vs "middle_Office" inconsistency in input? Standardize if possible. Assuming middleOffice based on target.
+    @JsonProperty("ssga_Parent_Count") int ssgaParentCount,
+    @JsonProperty("treasury_Parent_Count") int treasuryParentCount,
+
+    @JsonProperty("a_Platform_Client_Count") int aPlatformClientCount,
+    @JsonProperty("alpha_Services_Client_Count") int alphaServicesClientCount,
+    @JsonProperty("back_Office_Client_Count") int backOfficeClientCount,
+    @JsonProperty("custody_Client_Count") int custodyClientCount,
+    @JsonProperty("digital_Client_Count") int digitalClientCount,
     // globalMarketsClientCount already defined
-    @JsonProperty("middleOffice_Client_Count") String middleOfficeClientCount,
-    @JsonProperty("ssga_Client_Count") String ssgaClientCount,
-    @JsonProperty("treasury_Client_Count") String treasuryClientCount,
+    @JsonProperty("middleOffice_Client_Count") int middleOfficeClientCount,
+    @JsonProperty("ssga_Client_Count") int ssgaClientCount,
+    @JsonProperty("treasury_Client_Count") int treasuryClientCount,
 
 
-    @JsonProperty("a_Platform_Customer_Count") String aPlatformCustomerCount,
-    @JsonProperty("alpha_Services_Customer_Count") String alphaServicesCustomerCount,
-    @JsonProperty("back_Office_Customer_Count") String backOfficeCustomerCount,
-    @JsonProperty("custody_Customer_Count") String custodyCustomerCount,
-    @JsonProperty("digital_Customer_Count") String digitalCustomerCount,
-    @JsonProperty("global_Markets_Customer_Count") String globalMarketsCustomerCount,
-    @JsonProperty("middle_Office_Customer_Count") String middleOfficeCustomerCount, // Assuming this corresponds to "middleOffice" target
-    @JsonProperty("ssga_Customer_Count") String ssgaCustomerCount,
-    @JsonProperty("treasury_Customer_Count") String treasuryCustomerCount
+    @JsonProperty("a_Platform_Customer_Count") int aPlatformCustomerCount,
+    @JsonProperty("alpha_Services_Customer_Count") int alphaServicesCustomerCount,
+    @JsonProperty("back_Office_Customer_Count") int backOfficeCustomerCount,
+    @JsonProperty("custody_Customer_Count") int custodyCustomerCount,
+    @JsonProperty("digital_Customer_Count") int digitalCustomerCount,
+    @JsonProperty("global_Markets_Customer_Count") int globalMarketsCustomerCount,
+    @JsonProperty("middle_Office_Customer_Count") int middleOfficeCustomerCount, // Assuming this corresponds to "middleOffice" target
+    @JsonProperty("ssga_Customer_Count") int ssgaCustomerCount,
+    @JsonProperty("treasury_Customer_Count") int treasuryCustomerCount
 
     // NOTE: Ensure all field names match your actual JSON keys from the repository.
     // The @JsonProperty annotation helps if your Java field names differ from JSON keys.
@@ -376,15 +695,15 @@ record CustomerData(
     String type,            // "Customer"
     String segment,         // Inherited from Parent
     String region,          // Inherited from Parent
-    String platform,        // a_Platform_Customer_Count
-    String services,        // alpha_Services_Customer_Count
-    String backOffice,      // back_Office_Customer_Count
-    String custody,         // custody_Customer_Count
-    String digital,         // digital_Customer_Count
-    String globalMarkets,   // global_Markets_Customer_Count
-    String middleOffice,    // middle_Office_Customer_Count
-    String ssga,            // ssga_Customer_Count
-    String treasury,        // treasury_Customer_Count
+    int platform,           // a_Platform_Customer_Count
+    int services,           // alpha_Services_Customer_Count
+    int backOffice,         // back_Office_Customer_Count
+    int custody,            // custody_Customer_Count
+    int digital,            // digital_Customer_Count
+    int globalMarkets,      // global_Markets_Customer_Count
+    int middleOffice,       // middle_Office_Customer_Count
+    int ssga,               // ssga_Customer_Count
+    int treasury,           // treasury_Customer_Count
     List<Object> detailData // Always empty for now
 ) {}
 
@@ -396,15 +715,15 @@ record ClientData(
     String type,            // "Client"
     String segment,         // Inherited from Parent
     String region,          // Inherited from Parent
-    String platform,        // a_Platform_Client_Count (Note: a_Platform_Client_Count not in input example, add if needed)
-    String services,        // alpha_Services_Client_Count
-    String backOffice,      // back_Office_Client_Count
-    String custody,         // custody_Client_Count
-    String digital,         // digital_Client_Count
-    String globalMarkets,   // global_Markets_Client_Count
-    String middleOffice,    // middleOffice_Client_Count
-    String ssga,            // ssga_Client_Count
-    String treasury,        // treasury_Client_Count
+    int platform,           // a_Platform_Client_Count (Note: a_Platform_Client_Count not in input example, add if needed)
+    int services,           // alpha_Services_Client_Count
+    int backOffice,         // back_Office_Client_Count
+    int custody,            // custody_Client_Count
+    int digital,            // digital_Client_Count
+    int globalMarkets,      // global_Markets_Client_Count
+    int middleOffice,       // middleOffice_Client_Count
+    int ssga,               // ssga_Client_Count
+    int treasury,           // treasury_Client_Count
     List<CustomerData> subRows // Nested Customers
 ) {}
 
@@ -415,15 +734,15 @@ record ParentData(
     String type,            // "Parent"
     String segment,         // segment
     String region,          // region
-    String platform,        // a_Platform_Parent_Count
-    String services,        // alpha_Services_Parent_Count
-    String backOffice,      // back_Office_Parent_Count
-    String custody,         // custody_Parent_Count
-    String digital,         // digital_Parent_Count
-    String globalMarkets,   // global_Markets_Parent_Count
-    String middleOffice,    // middleOffice_Parent_Count
-    String ssga,            // ssga_Parent_Count
-    String treasury,        // treasury_Parent_Count
+    int platform,           // a_Platform_Parent_Count
+    int services,           // alpha_Services_Parent_Count
+    int backOffice,         // back_Office_Parent_Count
+    int custody,            // custody_Parent_Count
+    int digital,            // digital_Parent_Count
+    int globalMarkets,      // global_Markets_Parent_Count
+    int middleOffice,       // middleOffice_Parent_Count
+    int ssga,               // ssga_Parent_Count
+    int treasury,           // treasury_Parent_Count
     List<ClientData> subRows // Nested Clients
 ) {}
 
@@ -16,8 +16,82 @@ public class ProductServicesServiceImpl implements ProductServicesService, Prelo
     @Autowired
     private ProductServicesService self;
 
+    @Autowired
+    ProductServicesSnapshotHolder snapshotHolder;
+
+    @Autowired
+    HierarchyResultCache hierarchyResultCache;
+
+    @Autowired
+    ChunkedDatasetStore chunkedDatasetStore;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired(required = false)
+    DistributedSingleFlight distributedSingleFlight;
+
+    // Concurrent misses on the complete dataset share one load
+    private final SingleFlight<String, List<ProductServiceHierarchyRecordDTO>> completeDataLoads = new SingleFlight<>();
+
+    // Store the complete dataset as many small Redis keys instead of one huge value
+    @Value("${product.services.chunked.enabled:true}")
+    private boolean chunkedStorageEnabled;
+
+    @Autowired
+    ProductServicesDeltaRefresher deltaRefresher;
+
+    @Autowired
+    FilterTrafficRecorder filterTrafficRecorder;
+
+    @Autowired
+    ProductServicesStreamingRepository streamingRepository;
+
+    // Full loads stream rows (fetch-size tuned, mapped on a separate thread) instead of one blocking list query
+    @Value("${product.services.streaming.enabled:true}")
+    private boolean streamingLoadEnabled;
+
+    @Autowired
+    ProductServicesPartitionedLoader partitionedLoader;
+
+    // Full loads run as parallel partition queries (takes precedence over streaming)
+    @Value("${product.services.partitioned.enabled:true}")
+    private boolean partitionedLoadEnabled;
+
+    @Autowired
+    ProductServicesArrowLoader arrowLoader;
+
+    // Full loads fetch Arrow batches (Statement Execution API or local IPC files) instead of JDBC rows
+    @Value("${product.services.arrow.enabled:false}")
+    private boolean arrowLoadEnabled;
+
+    // Most frequent filters whose hierarchies are built whenever a new snapshot is published
+    @Value("${product.services.warm-set.size:20}")
+    private int warmSetSize;
+
+    // Refresh by merging rows changed since the stored watermark instead of reloading everything
+    @Value("${product.services.delta.enabled:true}")
+    private boolean deltaRefreshEnabled;
+
+    // Reload the complete dataset once it has used this fraction of its TTL
+    @Value("${cache.refresh-ahead.fraction:0.8}")
+    private double refreshAheadFraction;
+
+    // After a failed refresh or store, wait this long before refresh-ahead tries again
+    @Value("${cache.refresh-ahead.failure-backoff:PT15M}")
+    private Duration refreshFailureBackoff;
+
+    private volatile long refreshBackoffUntilMillis;
+
+    @Autowired
+    StringRedisTemplate stringRedisTemplate;
+
     // Cache key for the complete dataset (no filters)
     private static final String COMPLETE_DATA_CACHE_KEY = "product_services_complete_data";
+
+    // Non-chunked storage: TTL and Redis key of product_services_complete::complete_dataset
+    static final Duration COMPLETE_DATASET_TTL = Duration.ofHours(12);
+    private static final String COMPLETE_DATASET_REDIS_KEY = "product_services_complete::complete_dataset";
     
     public List<ProductServiceHierarchyRecordDTO> getProductServicesData(GlobalFilterDTO globalFilterDTO)
             throws SQLException {
@@ -32,135 +106,202 @@ public class ProductServicesServiceImpl implements ProductServicesService, Prelo
     }
 
     /**
-     * New method: Get complete data from cache and filter in-memory
+     * New method: Get complete data from the columnar snapshot and filter in-memory
      */
     private List<ProductServiceHierarchyRecordDTO> getFilteredDataFromCache(GlobalFilterDTO globalFilterDTO) 
             throws SQLException {
         
-        // Get the complete dataset from cache (or database if cache miss)
-        List<ProductServiceHierarchyRecordDTO> completeData = self.getCompleteDataCached();
+        // Get the columnar snapshot of the complete dataset (built from cache or database on first use)
+        ProductServicesSnapshot snapshot = getCompleteDataSnapshot();
         
-        if (completeData == null || completeData.isEmpty()) {
+        if (snapshot == null || snapshot.size() == 0) {
             logger.warn("No complete data available in cache, falling back to filtered database query");
             return repository.getProductServicesOptimizationList(globalFilterDTO);
         }
         
-        // Filter the complete data based on GlobalFilterDTO
-        List<ProductServiceHierarchyRecordDTO> filteredData = filterDataInMemory(completeData, globalFilterDTO);
+        // Filter over the column vectors, then materialize only the matching rows
+        BitSet matchingRows = snapshot.select(globalFilterDTO);
+        List<ProductServiceHierarchyRecordDTO> filteredData = snapshot.materialize(matchingRows);
         
-        logger.info("Filtered {} records from {} total records in-memory", 
-            filteredData.size(), completeData.size());
+        logger.info("Filtered {} records from {} total records in-memory (snapshot version {})", 
+            filteredData.size(), snapshot.size(), snapshot.getVersion());
         
         return filteredData;
     }
 
     /**
-     * Cache the complete dataset without any filters
+     * Returns the local columnar snapshot, rebuilding it from the cached complete dataset
+     * when it is missing or older than the configured snapshot TTL
      */
-    @Cacheable(value = "product_services_complete", key = "'complete_dataset'")
-    public List<ProductServiceHierarchyRecordDTO> getCompleteDataCached() throws SQLException {
-        logger.info("Cache MISS - Fetching complete dataset from database");
-        
-        // Create an empty filter to get all data
-        GlobalFilterDTO emptyFilter = new GlobalFilterDTO();
-        // Set any default values needed to get ALL data
-        
-        return repository.getProductServicesOptimizationList(emptyFilter);
+    private ProductServicesSnapshot getCompleteDataSnapshot() throws SQLException {
+        return snapshotHolder.getOrLoad(() -> self.getCompleteDataCached());
     }
 
     /**
-     * In-memory filtering logic
+     * Cache the complete dataset without any filters. With chunked storage enabled the dataset is
+     * read from / written to ChunkedDatasetStore; otherwise it stays a single value under
+     * product_services_complete::complete_dataset.
+     *
+     * Misses are coalesced: one load per JVM, and (when enabled) one load across all nodes.
      */
-    private List<ProductServiceHierarchyRecordDTO> filterDataInMemory(
-            List<ProductServiceHierarchyRecordDTO> completeData, 
-            GlobalFilterDTO filter) {
-        
-        return completeData.stream()
-            .filter(record -> matchesFilter(record, filter))
-            .collect(Collectors.toList());
+    public List<ProductServiceHierarchyRecordDTO> getCompleteDataCached() throws SQLException {
+        return getCompleteData(0, false);
     }
 
     /**
-     * Filter matching logic - customize based on your GlobalFilterDTO fields
+     * @param maxRows    a database load is aborted once it has read more rows than this (0 = no limit)
+     * @param background preload / refresh: wait for another node's load for as long as it holds the
+     *                   lock. A request waits only briefly and then fails with LoadInProgressException
+     *                   (getProductServicesData falls back to the filtered query) - it never starts a
+     *                   second full load while another node is running one.
      */
-    private boolean matchesFilter(ProductServiceHierarchyRecordDTO record, GlobalFilterDTO filter) {
-        // Handle null filter (return all data)
-        if (filter == null) {
-            return true;
+    private List<ProductServiceHierarchyRecordDTO> getCompleteData(long maxRows, boolean background)
+            throws SQLException {
+        Supplier<List<ProductServiceHierarchyRecordDTO>> lookup;
+        Callable<List<ProductServiceHierarchyRecordDTO>> loader;
+        if (chunkedStorageEnabled) {
+            lookup = this::readChunkedDataset;
+            loader = () -> loadAndStoreChunkedDataset(maxRows);
+        } else {
+            Cache completeDataCache = cacheManager.getCache("product_services_complete");
+            lookup = () -> completeDataCache.get("complete_dataset", List.class);
+            loader = () -> {
+                List<ProductServiceHierarchyRecordDTO> loaded = loadCompleteData(maxRows);
+                completeDataCache.put("complete_dataset", loaded);
+                return loaded;
+            };
         }
         
-        // Client Name filter
-        if (filter.getClientName() != null && !filter.getClientName().trim().isEmpty()) {
-            if (record.clientName() == null || 
-                !record.clientName().toLowerCase().contains(filter.getClientName().toLowerCase().trim())) {
-                return false;
-            }
+        List<ProductServiceHierarchyRecordDTO> cached = lookup.get();
+        if (cached != null) {
+            return cached;
         }
-        
-        // Segment filter
-        if (filter.getSegment() != null && !filter.getSegment().trim().isEmpty()) {
-            if (record.segment() == null || 
-                !record.segment().equalsIgnoreCase(filter.getSegment().trim())) {
-                return false;
-            }
+        try {
+            return completeDataLoads.load("complete_dataset", () -> {
+                List<ProductServiceHierarchyRecordDTO> current = lookup.get();
+                if (current != null) {
+                    return current;
+                }
+                if (distributedSingleFlight == null) {
+                    return loader.call();
+                }
+                return background
+                    ? distributedSingleFlight.load("product_services_complete::complete_dataset", lookup, loader)
+                    : distributedSingleFlight.loadOnRequest("product_services_complete::complete_dataset", lookup, loader);
+            });
+        } catch (SQLException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to load complete dataset", e);
         }
-        
-        // Region filter
-        if (filter.getRegion() != null && !filter.getRegion().trim().isEmpty()) {
-            if (record.region() == null || 
-                !record.region().equalsIgnoreCase(filter.getRegion().trim())) {
-                return false;
-            }
+    }
+
+    private List<ProductServiceHierarchyRecordDTO> readChunkedDataset() {
+        try {
+            return chunkedDatasetStore.read();
+        } catch (Exception e) {
+            logger.warn("Chunked dataset read failed: {}", e.getMessage());
+            return null;
         }
-        
-        // Customer Name filter
-        if (filter.getCustomerName() != null && !filter.getCustomerName().trim().isEmpty()) {
-            if (record.customerName() == null || 
-                !record.customerName().toLowerCase().contains(filter.getCustomerName().toLowerCase().trim())) {
-                return false;
-            }
+    }
+
+    private List<ProductServiceHierarchyRecordDTO> loadAndStoreChunkedDataset(long maxRows) throws SQLException {
+        // Taken before the full read, so later deltas cannot miss rows changed while it runs
+        String watermark = deltaRefreshEnabled ? currentWatermarkOrNull() : null;
+        List<ProductServiceHierarchyRecordDTO> records = loadCompleteData(maxRows);
+        try {
+            chunkedDatasetStore.write(records, watermark);
+        } catch (Exception e) {
+            // The manifest stays stale, so without the backoff every check would reload again
+            backOffRefresh();
+            logger.warn("Failed to store chunked dataset in Redis, refresh-ahead paused for {}: {}",
+                refreshFailureBackoff, e.getMessage());
         }
-        
-        // Parent ID filter
-        if (filter.getParentId() != null && !filter.getParentId().trim().isEmpty()) {
-            if (record.parentId() == null || 
-                !record.parentId().equalsIgnoreCase(filter.getParentId().trim())) {
-                return false;
+        return records;
+    }
+
+    private String currentWatermarkOrNull() {
+        try {
+            return deltaRefresher.currentWatermark();
+        } catch (Exception e) {
+            logger.warn("Could not read delta watermark, next refresh will be a full reload: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Delta refresh when possible, full reload otherwise
+     *
+     * @return the new dataset, or empty when the stored version is unchanged
+     */
+    private Optional<List<ProductServiceHierarchyRecordDTO>> refreshChunkedDataset() throws SQLException {
+        if (deltaRefreshEnabled) {
+            try {
+                DeltaRefreshResult result = deltaRefresher.refresh();
+                if (result != null) {
+                    return result.changed() ? Optional.of(result.records()) : Optional.empty();
+                }
+            } catch (Exception e) {
+                logger.warn("Delta refresh failed, falling back to full reload: {}", e.getMessage());
             }
         }
+        return Optional.of(loadAndStoreChunkedDataset(0));
+    }
+
+    /**
+     * @param maxRows abort once more rows than this have been read (0 = no limit); the plain
+     *                repository query can only be checked after it returns
+     */
+    private List<ProductServiceHierarchyRecordDTO> loadCompleteData(long maxRows) throws SQLException {
+        logger.info("Cache MISS - Fetching complete dataset from database");
         
-        // Parent Name filter
-        if (filter.getParentName() != null && !filter.getParentName().trim().isEmpty()) {
-            if (record.parentName() == null || 
-                !record.parentName().toLowerCase().contains(filter.getParentName().toLowerCase().trim())) {
-                return false;
-            }
+        if (arrowLoadEnabled) {
+            List<ProductServiceHierarchyRecordDTO> records = new ArrayList<>();
+            arrowLoader.forEachRow(rowLimited(records::add, maxRows));
+            return records;
         }
         
-        // MDM Client GEMS ID filter
-        if (filter.getMdmClientGemsId() != null && !filter.getMdmClientGemsId().trim().isEmpty()) {
-            if (record.mdmClientGemsId() == null || 
-                !record.mdmClientGemsId().equalsIgnoreCase(filter.getMdmClientGemsId().trim())) {
-                return false;
-            }
+        if (partitionedLoadEnabled) {
+            return partitionedLoader.loadAll(maxRows);
         }
         
-        // MDM Customer GEMS ID filter
-        if (filter.getMdmCustGemsId() != null && !filter.getMdmCustGemsId().trim().isEmpty()) {
-            if (record.mdmCustGemsId() == null || 
-                !record.mdmCustGemsId().equalsIgnoreCase(filter.getMdmCustGemsId().trim())) {
-                return false;
-            }
+        if (streamingLoadEnabled) {
+            List<ProductServiceHierarchyRecordDTO> records = new ArrayList<>();
+            streamingRepository.forEachRow(rowLimited(records::add, maxRows));
+            return records;
         }
         
-        // Add more filter conditions as needed based on your GlobalFilterDTO fields
-        // For example, if you have date ranges, numeric ranges, etc.
+        // Create an empty filter to get all data
+        GlobalFilterDTO emptyFilter = new GlobalFilterDTO();
+        // Set any default values needed to get ALL data
         
-        return true; // Record matches all filter criteria
+        List<ProductServiceHierarchyRecordDTO> records = repository.getProductServicesOptimizationList(emptyFilter);
+        if (maxRows > 0 && records.size() > maxRows) {
+            throw rowLimitExceeded(maxRows);
+        }
+        return records;
+    }
+
+    static IllegalStateException rowLimitExceeded(long maxRows) {
+        return new IllegalStateException("Complete dataset load aborted: more than " + maxRows
+            + " rows exceeds the preload budget");
+    }
+
+    private static <T> Consumer<T> rowLimited(Consumer<T> consumer, long maxRows) {
+        if (maxRows <= 0) {
+            return consumer;
+        }
+        long[] rows = {0};
+        return row -> {
+            if (++rows[0] > maxRows) {
+                throw rowLimitExceeded(maxRows);
+            }
+            consumer.accept(row);
+        };
     }
 
     // Keep the old method for backward compatibility or fallback
-    @Cacheable(value = "getProductServicesOptimization", keyGenerator = "customKeyGenerator")
+    @Cacheable(value = "getProductServicesOptimization", keyGenerator = "customKeyGenerator", sync = true)
     public List<ProductServiceHierarchyRecordDTO> getProductServicesDataCached(GlobalFilterDTO globalFilterDTO) 
             throws SQLException {
         logger.info("Cache MISS - Fetching filtered data from database (fallback method)");
@@ -171,12 +312,10 @@ public class ProductServicesServiceImpl implements ProductServicesService, Prelo
     public ResponseEntity<ResponseData<List<ParentDataRecordDTO>>> getProductServicesOptimization(
             GlobalFilterDTO globalFilterDTO) {
         logger.info("ProductServicesServiceImpl: getProductServicesOptimization()");
-        List<ProductServiceHierarchyRecordDTO> productServicesDTOOptimization;
         List<ParentDataRecordDTO> ParentDataRecordResponse;
         
         try {
-            productServicesDTOOptimization = getProductServicesData(globalFilterDTO);
-            ParentDataRecordResponse = hierarchyService.buildHierarchy(productServicesDTOOptimization);
+            ParentDataRecordResponse = getHierarchy(globalFilterDTO);
         } catch (SQLException e) {
             logger.error("SQLException: {}", e.getMessage());
             return new ResponseEntity<>(
@@ -191,15 +330,105 @@ public class ProductServicesServiceImpl implements ProductServicesService, Prelo
             ResponseData.success(ParentDataRecordResponse, Constants.SUCCESS_MESSAGE, HttpStatus.OK));
     }
 
+    /**
+     * Builds (or reuses) the hierarchy for a filter. Results are memoized per snapshot version
+     * and normalized filter, so repeated filters skip both filtering and assembly.
+     */
+    private List<ParentDataRecordDTO> getHierarchy(GlobalFilterDTO globalFilterDTO) throws SQLException {
+        ProductServicesSnapshot snapshot;
+        try {
+            snapshot = getCompleteDataSnapshot();
+        } catch (Exception e) {
+            logger.warn("Complete dataset snapshot unavailable: {}", e.getMessage());
+            snapshot = null;
+        }
+        
+        if (snapshot == null || snapshot.size() == 0) {
+            // No snapshot - build from the fallback (database) result, nothing to memoize against
+            return hierarchyService.buildHierarchy(getProductServicesData(globalFilterDTO));
+        }
+        
+        CompiledFilter filter = CompiledFilter.compile(globalFilterDTO);
+        filterTrafficRecorder.record(filter, globalFilterDTO);
+        return hierarchyFor(snapshot, filter);
+    }
+
+    private List<ParentDataRecordDTO> hierarchyFor(ProductServicesSnapshot snapshot, CompiledFilter filter) {
+        return hierarchyResultCache.get(snapshot.getVersion(), filter.canonicalKey(), () -> {
+            BitSet matchingRows = snapshot.select(filter);
+            logger.info("Hierarchy cache MISS - building from {} of {} rows (snapshot version {})", 
+                matchingRows.cardinality(), snapshot.size(), snapshot.getVersion());
+            return new HierarchyResultCache.BuiltHierarchy(
+                hierarchyService.buildHierarchy(snapshot.materialize(matchingRows)), matchingRows.cardinality());
+        });
+    }
+
+    /**
+     * Builds the hierarchies of the most frequent filters (and the unfiltered view) for a newly
+     * published snapshot, so the first users after a preload or refresh do not pay for them
+     */
+    @PostConstruct
+    public void registerWarmSet() {
+        snapshotHolder.addPublishListener(this::warmTopFilters);
+    }
+
+    private void warmTopFilters(ProductServicesSnapshot snapshot) {
+        long startTime = System.currentTimeMillis();
+        Set<String> warmed = new HashSet<>();
+        List<GlobalFilterDTO> filters = new ArrayList<>();
+        filters.add(new GlobalFilterDTO());
+        filters.addAll(filterTrafficRecorder.topFilters(warmSetSize));
+        for (GlobalFilterDTO globalFilterDTO : filters) {
+            CompiledFilter filter = CompiledFilter.compile(globalFilterDTO);
+            if (!warmed.add(filter.canonicalKey())) {
+                continue;
+            }
+            try {
+                hierarchyFor(snapshot, filter);
+            } catch (Exception e) {
+                logger.warn("Failed to warm hierarchy for filter {}: {}", filter.canonicalKey(), e.getMessage());
+            }
+        }
+        logger.info("Warmed {} hierarchies for snapshot version {} in {}ms", 
+            warmed.size(), snapshot.getVersion(), (System.currentTimeMillis() - startTime));
+    }
+
+    /**
+     * Refuses to preload when the stored dataset is larger than the row or memory budget: checked
+     * against the chunked manifest before anything is loaded, and enforced while a database load runs
+     */
+    @Override
+    public void preloadCache(PreloadBudget budget) throws Exception {
+        if (PreloadBudget.UNLIMITED.equals(budget)) {
+            preloadCache();
+            return;
+        }
+        if (chunkedStorageEnabled) {
+            DatasetManifest manifest = chunkedDatasetStore.readManifest();
+            if (manifest != null) {
+                long rows = manifest.rowCount();
+                long estimatedBytes = rows * ProductServicesSnapshot.ESTIMATED_LOAD_BYTES_PER_ROW;
+                if (!budget.allowsRows(rows) || !budget.allowsMemory(estimatedBytes)) {
+                    throw new IllegalStateException(String.format(
+                        "Complete dataset (%d rows, ~%d MB) exceeds preload budget (max rows %d, max memory %d MB)",
+                        rows, estimatedBytes / (1024 * 1024), budget.maxRows(), budget.maxMemoryBytes() / (1024 * 1024)));
+                }
+            }
+        }
+        long maxRows = budget.rowLimit(ProductServicesSnapshot.ESTIMATED_LOAD_BYTES_PER_ROW);
+        ProductServicesSnapshot snapshot = snapshotHolder.getOrLoad(() -> getCompleteData(maxRows, true));
+        logger.info("Preloaded complete dataset with {} records (row limit {})", snapshot.size(), maxRows);
+    }
+
     // Implement PreloadableService
     @Override
     public void preloadCache() throws Exception {
         logger.info("Starting ProductServices cache preload (complete dataset)...");
         
         try {
-            // Preload the complete dataset
-            List<ProductServiceHierarchyRecordDTO> completeData = getCompleteDataCached();
-            logger.info("Preloaded complete dataset with {} records", completeData.size());
+            // Preload the complete dataset and build the local columnar snapshot from it
+            ProductServicesSnapshot snapshot = snapshotHolder.getOrLoad(() -> getCompleteData(0, true));
+            logger.info("Preloaded complete dataset with {} records", snapshot.size());
             
         } catch (Exception e) {
             logger.warn("Failed to preload ProductServices complete dataset: {}", e.getMessage());
@@ -209,10 +438,129 @@ public class ProductServicesServiceImpl implements ProductServicesService, Prelo
         logger.info("Completed ProductServices cache preload");
     }
     
+    /**
+     * Due once the stored complete dataset has used refreshAheadFraction of its TTL. Never due while
+     * backing off after a failed refresh or store.
+     */
+    @Override
+    public boolean isRefreshDue() {
+        if (System.currentTimeMillis() < refreshBackoffUntilMillis) {
+            return false;
+        }
+        if (!chunkedStorageEnabled) {
+            return !isCompleteDatasetFresh();
+        }
+        return !isChunkedDatasetFresh(chunkedDatasetStore.readManifest());
+    }
+
+    private void backOffRefresh() {
+        refreshBackoffUntilMillis = System.currentTimeMillis() + refreshFailureBackoff.toMillis();
+    }
+
+    private boolean isCompleteDatasetFresh() {
+        Long remainingMillis = stringRedisTemplate.getExpire(COMPLETE_DATASET_REDIS_KEY, TimeUnit.MILLISECONDS);
+        if (remainingMillis == null || remainingMillis == -1) {
+            // Unknown, or stored without expiry
+            return true;
+        }
+        if (remainingMillis == -2) {
+            return false; // missing
+        }
+        long refreshAfterMillis = (long) (COMPLETE_DATASET_TTL.toMillis() * refreshAheadFraction);
+        return COMPLETE_DATASET_TTL.toMillis() - remainingMillis < refreshAfterMillis;
+    }
+
+    private boolean isChunkedDatasetFresh(DatasetManifest manifest) {
+        if (manifest == null) {
+            return false;
+        }
+        long refreshAfterMillis = (long) (chunkedDatasetStore.getTtl().toMillis() * refreshAheadFraction);
+        return System.currentTimeMillis() - manifest.createdAt() < refreshAfterMillis;
+    }
+
+    /**
+     * Reloads the complete dataset (as a delta on top of the stored version when possible) and replaces
+     * the stored version and the local snapshot. The current version keeps being served until then.
+     * With the distributed single flight only one node queries the database; the others pick up the
+     * version it writes.
+     */
+    @Override
+    public void refreshCache() throws Exception {
+        try {
+            if (chunkedStorageEnabled) {
+                refreshChunkedCache();
+            } else {
+                refreshCompleteDataCache();
+            }
+        } catch (Exception e) {
+            backOffRefresh();
+            throw e;
+        }
+    }
+
+    private void refreshCompleteDataCache() throws Exception {
+        Cache completeDataCache = cacheManager.getCache("product_services_complete");
+        List<ProductServiceHierarchyRecordDTO> records;
+        if (distributedSingleFlight == null) {
+            records = loadCompleteData(0);
+            completeDataCache.put("complete_dataset", records);
+        } else {
+            // The put resets the TTL, so a fresh key means another node has refreshed it
+            records = distributedSingleFlight.load("product_services_complete::refresh",
+                () -> isCompleteDatasetFresh() ? completeDataCache.get("complete_dataset", List.class) : null,
+                () -> {
+                    List<ProductServiceHierarchyRecordDTO> loaded = loadCompleteData(0);
+                    completeDataCache.put("complete_dataset", loaded);
+                    return loaded;
+                });
+        }
+        snapshotHolder.publish(records);
+    }
+
+    private void refreshChunkedCache() throws Exception {
+        Optional<List<ProductServiceHierarchyRecordDTO>> records;
+        if (distributedSingleFlight == null) {
+            records = refreshChunkedDataset();
+        } else {
+            DatasetManifest before = chunkedDatasetStore.readManifest();
+            records = distributedSingleFlight.load("product_services_complete::refresh",
+                () -> refreshedOnOtherNode(before), this::refreshChunkedDataset);
+        }
+        if (records.isPresent()) {
+            snapshotHolder.publish(records.get());
+        } else if (snapshotHolder.current() == null) {
+            snapshotHolder.publish(getCompleteData(0, true));
+        } else {
+            logger.info("Complete dataset unchanged, keeping snapshot version {}", snapshotHolder.current().getVersion());
+        }
+    }
+
+    /**
+     * Lookup for nodes waiting on another node's refresh: null while not refreshed yet, empty when
+     * the other node kept the stored version, otherwise the version it wrote
+     */
+    private Optional<List<ProductServiceHierarchyRecordDTO>> refreshedOnOtherNode(DatasetManifest before) {
+        DatasetManifest manifest = chunkedDatasetStore.readManifest();
+        if (!isChunkedDatasetFresh(manifest)) {
+            return null;
+        }
+        if (before != null && manifest.version() == before.version()) {
+            return Optional.empty();
+        }
+        List<ProductServiceHierarchyRecordDTO> records = readChunkedDataset();
+        return records != null ? Optional.of(records) : null;
+    }
+    
     @Override
     public long getEstimatedPreloadTime() {
         return 5000; // 5 seconds estimated for complete dataset
     }
+
+    @Override
+    public long getPreloadedRecordCount() {
+        ProductServicesSnapshot snapshot = snapshotHolder.current();
+        return snapshot != null ? snapshot.size() : -1;
+    }
 }
 
 // 2. Advanced Filtering Utility Class
@@ -251,45 +599,15 @@ public class InMemoryFilterUtil {
      * Check if filter is empty/null
      */
     public boolean isEmptyFilter(GlobalFilterDTO filter) {
-        if (filter == null) return true;
-        
-        return (filter.getClientName() == null || filter.getClientName().trim().isEmpty()) &&
-               (filter.getSegment() == null || filter.getSegment().trim().isEmpty()) &&
-               (filter.getRegion() == null || filter.getRegion().trim().isEmpty()) &&
-               (filter.getCustomerName() == null || filter.getCustomerName().trim().isEmpty()) &&
-               (filter.getParentId() == null || filter.getParentId().trim().isEmpty()) &&
-               (filter.getParentName() == null || filter.getParentName().trim().isEmpty()) &&
-               (filter.getMdmClientGemsId() == null || filter.getMdmClientGemsId().trim().isEmpty()) &&
-               (filter.getMdmCustGemsId() == null || filter.getMdmCustGemsId().trim().isEmpty());
-               // Add other filter fields as needed
+        return CompiledFilter.compile(filter).isEmpty();
     }
     
     /**
-     * Create filter predicates for complex filtering scenarios
+     * Create filter predicates for complex filtering scenarios.
+     * The filter is normalized once; the returned predicate does not allocate per record.
      */
     public Predicate<ProductServiceHierarchyRecordDTO> createFilterPredicate(GlobalFilterDTO filter) {
-        List<Predicate<ProductServiceHierarchyRecordDTO>> predicates = new ArrayList<>();
-        
-        // Client Name filter
-        if (filter.getClientName() != null && !filter.getClientName().trim().isEmpty()) {
-            predicates.add(record -> record.clientName() != null && 
-                record.clientName().toLowerCase().contains(filter.getClientName().toLowerCase().trim()));
-        }
-        
-        // Segment filter
-        if (filter.getSegment() != null && !filter.getSegment().trim().isEmpty()) {
-            predicates.add(record -> record.segment() != null && 
-                record.segment().equalsIgnoreCase(filter.getSegment().trim()));
-        }
-        
-        // Region filter
-        if (filter.getRegion() != null && !filter.getRegion().trim().isEmpty()) {
-            predicates.add(record -> record.region() != null && 
-                record.region().equalsIgnoreCase(filter.getRegion().trim()));
-        }
-        
-        // Combine all predicates with AND logic
-        return predicates.stream().reduce(Predicate::and).orElse(record -> true);
+        return CompiledFilter.compile(filter);
     }
 }
 
@@ -298,30 +616,64 @@ public class InMemoryFilterUtil {
 @EnableCaching
 public class RedisCacheConfig {
 
+    // On-heap L1 in front of the Redis caches (see TwoTierCacheManager)
+    @Value("${cache.near.enabled:true}")
+    private boolean nearCacheEnabled;
+
+    @Value("${cache.near.max-entries:500}")
+    private long nearCacheMaxEntries;
+
+    @Value("${cache.near.ttl:PT5M}")
+    private Duration nearCacheTtl;
+
+    // Both formats are always readable; this selects what is written. Switch to binary only after every
+    // node runs a version that reads it (see the rollout note in BinaryRedisSerializer.java)
+    @Value("${cache.redis.value-format:json}")
+    private String valueFormat;
+
+    @Value("${cache.redis.compression:lz4}")
+    private String valueCompression;
+
+    private RedisSerializer<Object> valueSerializer() {
+        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer();
+        return new ProductServicesBinaryRedisSerializer(jsonSerializer,
+            ProductServicesBinaryRedisSerializer.Compression.valueOf(valueCompression.toUpperCase()),
+            "binary".equalsIgnoreCase(valueFormat));
+    }
+
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory, StringRedisTemplate stringRedisTemplate,
+                                     ObjectProvider<DistributedSingleFlight> distributedSingleFlight) {
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
             .entryTtl(Duration.ofHours(6)) // Complete dataset cache for 6 hours
             .serializeKeysWith(RedisSerializationContext.SerializationPair
                 .fromSerializer(new StringRedisSerializer()))
             .serializeValuesWith(RedisSerializationContext.SerializationPair
-                .fromSerializer(new GenericJackson2JsonRedisSerializer()));
+                .fromSerializer(valueSerializer()));
 
         // Different TTL for different caches
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
         
         // Complete dataset - longer TTL
         cacheConfigurations.put("product_services_complete", 
-            config.entryTtl(Duration.ofHours(12)));
+            config.entryTtl(ProductServicesServiceImpl.COMPLETE_DATASET_TTL));
         
         // Filtered results - shorter TTL (if you still want to cache some specific filters)
         cacheConfigurations.put("getProductServicesOptimization", 
             config.entryTtl(Duration.ofMinutes(30)));
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
             .cacheDefaults(config)
             .withInitialCacheConfigurations(cacheConfigurations)
             .build();
+
+        if (!nearCacheEnabled) {
+            return redisCacheManager;
+        }
+        // Not exposed as a bean, so initialize it here
+        redisCacheManager.afterPropertiesSet();
+        return new TwoTierCacheManager(redisCacheManager, stringRedisTemplate, nearCacheMaxEntries, nearCacheTtl,
+            distributedSingleFlight.getIfAvailable());
     }
 }
 
@@ -346,3 +698,1020 @@ public class CacheStatsService {
         logCacheStats();
     }
 }
+
+
+// 5. Columnar Snapshot of the Complete Dataset
+/**
+ * Immutable, filter-oriented view of the complete product-services dataset.
+ * Row i of every index belongs to record i of the loaded list.
+ *
+ * - the loaded records themselves are kept (counts included), so query results are the list itself
+ *   or an index view over it instead of re-created DTOs
+ * - segment, region, country, parent id and the GEMS ids are only held as bitmap / posting-list
+ *   indexes; their dictionary columns are dropped once the indexes are built
+ * - the names stay dictionary-encoded (int code per row) next to their trigram indexes, for
+ *   substring matching
+ *
+ * The indexes are extra heap on top of the records: roughly 4 bytes per row per name column plus
+ * the posting lists, in exchange for filters that never scan all rows.
+ *
+ * Assumes ProductServiceHierarchyRecordDTO has the RepositoryResponseItem components
+ * (same order) followed by country.
+ */
+public final class ProductServicesSnapshot {
+
+    static final int COUNT_COLUMNS = 27;
+
+    // Rough peak heap per row while loading: the decoded record list plus the columns and indexes built from it
+    static final int ESTIMATED_LOAD_BYTES_PER_ROW = 700;
+
+    // Count accessors in record component order (see readCounts / newRecord)
+    private static final List<ToIntFunction<ProductServiceHierarchyRecordDTO>> COUNT_ACCESSORS = List.of(
+        ProductServiceHierarchyRecordDTO::alphaServicesParentCount,
+        ProductServiceHierarchyRecordDTO::globalMarketsClientCount,
+        ProductServiceHierarchyRecordDTO::aPlatformParentCount,
+        ProductServiceHierarchyRecordDTO::backOfficeParentCount,
+        ProductServiceHierarchyRecordDTO::custodyParentCount,
+        ProductServiceHierarchyRecordDTO::digitalParentCount,
+        ProductServiceHierarchyRecordDTO::globalMarketsParentCount,
+        ProductServiceHierarchyRecordDTO::middleOfficeParentCount,
+        ProductServiceHierarchyRecordDTO::ssgaParentCount,
+        ProductServiceHierarchyRecordDTO::treasuryParentCount,
+        ProductServiceHierarchyRecordDTO::aPlatformClientCount,
+        ProductServiceHierarchyRecordDTO::alphaServicesClientCount,
+        ProductServiceHierarchyRecordDTO::backOfficeClientCount,
+        ProductServiceHierarchyRecordDTO::custodyClientCount,
+        ProductServiceHierarchyRecordDTO::digitalClientCount,
+        ProductServiceHierarchyRecordDTO::middleOfficeClientCount,
+        ProductServiceHierarchyRecordDTO::ssgaClientCount,
+        ProductServiceHierarchyRecordDTO::treasuryClientCount,
+        ProductServiceHierarchyRecordDTO::aPlatformCustomerCount,
+        ProductServiceHierarchyRecordDTO::alphaServicesCustomerCount,
+        ProductServiceHierarchyRecordDTO::backOfficeCustomerCount,
+        ProductServiceHierarchyRecordDTO::custodyCustomerCount,
+        ProductServiceHierarchyRecordDTO::digitalCustomerCount,
+        ProductServiceHierarchyRecordDTO::globalMarketsCustomerCount,
+        ProductServiceHierarchyRecordDTO::middleOfficeCustomerCount,
+        ProductServiceHierarchyRecordDTO::ssgaCustomerCount,
+        ProductServiceHierarchyRecordDTO::treasuryCustomerCount
+    );
+
+    private final long version;
+    private final long loadedAtMillis;
+    private final int rowCount;
+
+    // The loaded records, returned as-is (or as index views) so queries allocate no DTOs
+    private final List<ProductServiceHierarchyRecordDTO> records;
+
+    private final DictionaryColumn parentName;
+    private final DictionaryColumn clientName;
+    private final DictionaryColumn customerName;
+
+    // Bitmap secondary indexes for the equality filters
+    private final EqualityIndex segmentIndex;
+    private final EqualityIndex regionIndex;
+    private final EqualityIndex countryIndex;
+    private final EqualityIndex parentIdIndex;
+    private final EqualityIndex clientIdIndex;
+    private final EqualityIndex customerIdIndex;
+
+    // Trigram indexes for the name substring filters
+    private final TrigramIndex clientNameIndex;
+    private final TrigramIndex customerNameIndex;
+    private final TrigramIndex parentNameIndex;
+
+    // Below this many candidate rows, substring filters verify rows directly instead of using the trigram index
+    private static final int SUBSTRING_SCAN_THRESHOLD = 4096;
+
+    private ProductServicesSnapshot(long version, List<ProductServiceHierarchyRecordDTO> records) {
+        this.version = version;
+        this.loadedAtMillis = System.currentTimeMillis();
+        this.rowCount = records.size();
+        // Not copied: loaded lists are never modified after publishing
+        this.records = Collections.unmodifiableList(records);
+
+        DictionaryColumn.Builder parentNames = new DictionaryColumn.Builder(rowCount);
+        DictionaryColumn.Builder clientIds = new DictionaryColumn.Builder(rowCount);
+        DictionaryColumn.Builder customerIds = new DictionaryColumn.Builder(rowCount);
+        DictionaryColumn.Builder segments = new DictionaryColumn.Builder(rowCount);
+        DictionaryColumn.Builder regions = new DictionaryColumn.Builder(rowCount);
+        DictionaryColumn.Builder countries = new DictionaryColumn.Builder(rowCount);
+        DictionaryColumn.Builder clientNames = new DictionaryColumn.Builder(rowCount);
+        DictionaryColumn.Builder customerNames = new DictionaryColumn.Builder(rowCount);
+        DictionaryColumn.Builder parentIds = new DictionaryColumn.Builder(rowCount);
+
+        for (int row = 0; row < rowCount; row++) {
+            ProductServiceHierarchyRecordDTO record = records.get(row);
+
+            parentIds.add(record.parentId());
+            parentNames.add(record.parentName());
+            clientIds.add(record.mdmClientGemsId());
+            customerIds.add(record.mdmCustGemsId());
+            segments.add(record.segment());
+            regions.add(record.region());
+            countries.add(record.country());
+            clientNames.add(record.clientName());
+            customerNames.add(record.customerName());
+        }
+
+        this.parentName = parentNames.build();
+        this.clientName = clientNames.build();
+        this.customerName = customerNames.build();
+
+        // Equality indexes are built once per snapshot load; their columns are not kept
+        this.segmentIndex = EqualityIndex.of(segments.build());
+        this.regionIndex = EqualityIndex.of(regions.build());
+        this.countryIndex = EqualityIndex.of(countries.build());
+        this.clientIdIndex = EqualityIndex.of(clientIds.build());
+        this.customerIdIndex = EqualityIndex.of(customerIds.build());
+        this.parentIdIndex = EqualityIndex.of(parentIds.build());
+
+        // Trigram indexes for substring search on the names
+        this.clientNameIndex = TrigramIndex.of(clientName);
+        this.customerNameIndex = TrigramIndex.of(customerName);
+        this.parentNameIndex = TrigramIndex.of(parentName);
+    }
+
+    public static ProductServicesSnapshot of(long version, List<ProductServiceHierarchyRecordDTO> records) {
+        return new ProductServicesSnapshot(version, records);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return rowCount;
+    }
+
+    public boolean isOlderThan(Duration maxAge) {
+        return System.currentTimeMillis() - loadedAtMillis > maxAge.toMillis();
+    }
+
+    /**
+     * Evaluates the filter over the column vectors and returns the matching row ids.
+     * Equality predicates are answered from the bitmap indexes (OR within a field, AND across fields);
+     * only the substring predicates scan rows, and only the rows that survived the index step.
+     */
+    public BitSet select(GlobalFilterDTO filter) {
+        return select(CompiledFilter.compile(filter));
+    }
+
+    public BitSet select(CompiledFilter filter) {
+        if (filter.isEmpty()) {
+            return allRows();
+        }
+
+        List<BitSet> equalityMatches = new ArrayList<>();
+        addEqualityMatch(equalityMatches, segmentIndex, filter.segment());
+        addEqualityMatch(equalityMatches, regionIndex, filter.region());
+        addEqualityMatch(equalityMatches, countryIndex, filter.country());
+        addEqualityMatch(equalityMatches, parentIdIndex, filter.parentId());
+        addEqualityMatch(equalityMatches, clientIdIndex, filter.mdmClientGemsId());
+        addEqualityMatch(equalityMatches, customerIdIndex, filter.mdmCustGemsId());
+        BitSet rows = intersect(equalityMatches);
+
+        // Substring needles are already lower-cased; the dictionaries hold pre-lowered search keys.
+        // Longer needles first: they are the most selective.
+        for (CompiledFilter.Field field : filter.substringFieldsBySelectivity()) {
+            if (rows.isEmpty()) {
+                break;
+            }
+            String needle = filter.value(field);
+            if (rows.cardinality() <= SUBSTRING_SCAN_THRESHOLD) {
+                // Few candidates left: verifying them directly is cheaper than the index lookup
+                retainContaining(rows, nameColumn(field), needle);
+            } else {
+                rows.and(nameIndex(field).rowsContaining(needle, rowCount));
+            }
+        }
+
+        return rows;
+    }
+
+    private DictionaryColumn nameColumn(CompiledFilter.Field field) {
+        switch (field) {
+            case CLIENT_NAME: return clientName;
+            case CUSTOMER_NAME: return customerName;
+            case PARENT_NAME: return parentName;
+            default: throw new IllegalArgumentException("Not a substring field: " + field);
+        }
+    }
+
+    private TrigramIndex nameIndex(CompiledFilter.Field field) {
+        switch (field) {
+            case CLIENT_NAME: return clientNameIndex;
+            case CUSTOMER_NAME: return customerNameIndex;
+            case PARENT_NAME: return parentNameIndex;
+            default: throw new IllegalArgumentException("Not a substring field: " + field);
+        }
+    }
+
+    private void addEqualityMatch(List<BitSet> matches, EqualityIndex index, String value) {
+        if (value != null) {
+            matches.add(index.rowsMatchingAny(Collections.singletonList(value), rowCount));
+        }
+    }
+
+    private BitSet allRows() {
+        BitSet rows = new BitSet(rowCount);
+        rows.set(0, rowCount);
+        return rows;
+    }
+
+    // AND the per-field bitmaps, starting from the most selective one
+    private BitSet intersect(List<BitSet> matches) {
+        if (matches.isEmpty()) {
+            return allRows();
+        }
+        matches.sort(Comparator.comparingInt(BitSet::cardinality));
+        BitSet rows = matches.get(0);
+        for (int i = 1; i < matches.size() && !rows.isEmpty(); i++) {
+            rows.and(matches.get(i));
+        }
+        return rows;
+    }
+
+    private static void retainContaining(BitSet rows, DictionaryColumn column, String lowerNeedle) {
+        int[] codes = column.codes;
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            int code = codes[row];
+            if (code == DictionaryColumn.NULL_CODE || !column.lowerValues[code].contains(lowerNeedle)) {
+                rows.clear(row);
+            }
+        }
+    }
+
+    /**
+     * The selected rows (e.g. for hierarchy building or the fallback API): the loaded list itself when
+     * every row matches, otherwise a read-only view over the matching row ids - no DTO is created
+     */
+    public List<ProductServiceHierarchyRecordDTO> materialize(BitSet rows) {
+        int matching = rows.cardinality();
+        if (matching == rowCount) {
+            return records;
+        }
+        int[] rowIds = new int[matching];
+        int i = 0;
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            rowIds[i++] = row;
+        }
+        return new RowView(records, rowIds);
+    }
+
+    private static final class RowView extends AbstractList<ProductServiceHierarchyRecordDTO> implements RandomAccess {
+        private final List<ProductServiceHierarchyRecordDTO> records;
+        private final int[] rowIds;
+
+        RowView(List<ProductServiceHierarchyRecordDTO> records, int[] rowIds) {
+            this.records = records;
+            this.rowIds = rowIds;
+        }
+
+        @Override
+        public ProductServiceHierarchyRecordDTO get(int index) {
+            return records.get(rowIds[index]);
+        }
+
+        @Override
+        public int size() {
+            return rowIds.length;
+        }
+    }
+
+    /**
+     * Reads the 27 counts of a record in component order into c[offset .. offset + COUNT_COLUMNS)
+     */
+    static void readCounts(ProductServiceHierarchyRecordDTO record, int[] c, int offset) {
+        for (int col = 0; col < COUNT_COLUMNS; col++) {
+            c[offset + col] = COUNT_ACCESSORS.get(col).applyAsInt(record);
+        }
+    }
+
+    /**
+     * Creates a record from its string fields and the 27 counts stored at c[b .. b + COUNT_COLUMNS)
+     */
+    static ProductServiceHierarchyRecordDTO newRecord(String parentName, String parentId, String mdmClientGemsId,
+                                                      String mdmCustGemsId, String segment, String region,
+                                                      String clientName, String customerName,
+                                                      int[] c, int b, String country) {
+        return new ProductServiceHierarchyRecordDTO(
+            parentName,
+            parentId,
+            mdmClientGemsId,
+            mdmCustGemsId,
+            segment,
+            region,
+            clientName,
+            customerName,
+            c[b], c[b + 1], c[b + 2], c[b + 3], c[b + 4], c[b + 5], c[b + 6], c[b + 7], c[b + 8],
+            c[b + 9], c[b + 10], c[b + 11], c[b + 12], c[b + 13], c[b + 14], c[b + 15], c[b + 16], c[b + 17],
+            c[b + 18], c[b + 19], c[b + 20], c[b + 21], c[b + 22], c[b + 23], c[b + 24], c[b + 25], c[b + 26],
+            country
+        );
+    }
+}
+
+/**
+ * Dictionary-encoded string column: one int code per row plus the distinct values.
+ * lowerValues holds the lower-cased form of each distinct value for case-insensitive matching. Values are
+ * not trimmed: like CompiledFilter, only the filter side is trimmed and the record value is compared as-is.
+ */
+final class DictionaryColumn {
+    static final int NULL_CODE = -1;
+
+    final int[] codes;
+    final String[] values;
+    final String[] lowerValues;
+
+    private DictionaryColumn(int[] codes, String[] values) {
+        this.codes = codes;
+        this.values = values;
+        this.lowerValues = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            lowerValues[i] = values[i].toLowerCase();
+        }
+    }
+
+    int cardinality() {
+        return values.length;
+    }
+
+    /**
+     * Evaluates the predicate once per distinct (lower-cased) value
+     */
+    boolean[] codesMatching(Predicate<String> lowerValuePredicate) {
+        boolean[] matches = new boolean[values.length];
+        for (int code = 0; code < values.length; code++) {
+            matches[code] = lowerValuePredicate.test(lowerValues[code]);
+        }
+        return matches;
+    }
+
+    static final class Builder {
+        private final int[] codes;
+        private final Map<String, Integer> codeByValue = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private int size;
+
+        Builder(int expectedRows) {
+            this.codes = new int[expectedRows];
+        }
+
+        void add(String value) {
+            if (value == null) {
+                codes[size++] = NULL_CODE;
+                return;
+            }
+            Integer code = codeByValue.get(value);
+            if (code == null) {
+                code = values.size();
+                codeByValue.put(value, code);
+                values.add(value);
+            }
+            codes[size++] = code;
+        }
+
+        DictionaryColumn build() {
+            return new DictionaryColumn(codes, values.toArray(new String[0]));
+        }
+    }
+}
+
+/**
+ * Per-value row sets for one equality column, keyed by the lower-cased record value (see DictionaryColumn).
+ * Frequent values are stored as a BitSet, rare ones as a sorted int[] of row ids,
+ * whichever is smaller.
+ */
+final class EqualityIndex {
+    private final Map<String, RowSet> rowsByValue;
+
+    private EqualityIndex(Map<String, RowSet> rowsByValue) {
+        this.rowsByValue = rowsByValue;
+    }
+
+    static EqualityIndex of(DictionaryColumn column) {
+        int rowCount = column.codes.length;
+        int cardinality = column.cardinality();
+
+        // Two passes over the codes: count rows per code, then fill exact-size posting lists
+        int[] sizes = new int[cardinality];
+        for (int code : column.codes) {
+            if (code != DictionaryColumn.NULL_CODE) {
+                sizes[code]++;
+            }
+        }
+        int[][] postings = new int[cardinality][];
+        for (int code = 0; code < cardinality; code++) {
+            postings[code] = new int[sizes[code]];
+        }
+        int[] cursor = new int[cardinality];
+        for (int row = 0; row < rowCount; row++) {
+            int code = column.codes[row];
+            if (code != DictionaryColumn.NULL_CODE) {
+                postings[code][cursor[code]++] = row;
+            }
+        }
+
+        // Values differing only by case or surrounding spaces share one entry
+        Map<String, RowSet> rowsByValue = new HashMap<>(cardinality * 2);
+        for (int code = 0; code < cardinality; code++) {
+            rowsByValue.merge(column.lowerValues[code], RowSet.of(postings[code], rowCount),
+                (a, b) -> RowSet.union(a, b, rowCount));
+        }
+        return new EqualityIndex(rowsByValue);
+    }
+
+    /**
+     * OR of the row sets of the given values
+     */
+    BitSet rowsMatchingAny(Collection<String> values, int rowCount) {
+        BitSet result = new BitSet(rowCount);
+        if (values == null) {
+            return result;
+        }
+        for (String value : values) {
+            if (value == null) {
+                continue;
+            }
+            RowSet rows = rowsByValue.get(value.trim().toLowerCase());
+            if (rows != null) {
+                rows.orInto(result);
+            }
+        }
+        return result;
+    }
+
+    private static final class RowSet {
+        private final int[] rows;   // sorted row ids, or null when bits is used
+        private final BitSet bits;
+
+        private RowSet(int[] rows, BitSet bits) {
+            this.rows = rows;
+            this.bits = bits;
+        }
+
+        static RowSet of(int[] rows, int rowCount) {
+            // A BitSet costs rowCount / 8 bytes, a posting list 4 bytes per row
+            if ((long) rows.length * 32 > rowCount) {
+                BitSet bits = new BitSet(rowCount);
+                for (int row : rows) {
+                    bits.set(row);
+                }
+                return new RowSet(null, bits);
+            }
+            return new RowSet(rows, null);
+        }
+
+        static RowSet union(RowSet a, RowSet b, int rowCount) {
+            BitSet bits = new BitSet(rowCount);
+            a.orInto(bits);
+            b.orInto(bits);
+            return new RowSet(null, bits);
+        }
+
+        void orInto(BitSet target) {
+            if (bits != null) {
+                target.or(bits);
+            } else {
+                for (int row : rows) {
+                    target.set(row);
+                }
+            }
+        }
+    }
+}
+
+/**
+ * Trigram index over the distinct lower-cased values of a name column.
+ *
+ * A substring query intersects the value-code postings of the needle's trigrams, verifies
+ * only those candidate values with contains(), and maps the matching codes to rows through a
+ * code -> rows table (offsets + row ids). Needles shorter than three characters fall back to
+ * a scan over the distinct values.
+ */
+final class TrigramIndex {
+    private static final int[] NO_CODES = new int[0];
+
+    private final DictionaryColumn column;
+    private final Map<Long, int[]> codesByTrigram;  // sorted value codes per trigram
+    private final int[] rowOffsets;                  // rows of code c: rowsByCode[rowOffsets[c] .. rowOffsets[c + 1])
+    private final int[] rowsByCode;
+
+    private TrigramIndex(DictionaryColumn column, Map<Long, int[]> codesByTrigram, int[] rowOffsets, int[] rowsByCode) {
+        this.column = column;
+        this.codesByTrigram = codesByTrigram;
+        this.rowOffsets = rowOffsets;
+        this.rowsByCode = rowsByCode;
+    }
+
+    static TrigramIndex of(DictionaryColumn column) {
+        int cardinality = column.cardinality();
+
+        // Codes are visited in increasing order, so every posting list comes out sorted
+        Map<Long, IntList> postings = new HashMap<>();
+        Set<Long> seen = new HashSet<>();
+        for (int code = 0; code < cardinality; code++) {
+            String value = column.lowerValues[code];
+            seen.clear();
+            for (int i = 0; i + 3 <= value.length(); i++) {
+                long trigram = trigram(value, i);
+                if (seen.add(trigram)) {
+                    postings.computeIfAbsent(trigram, t -> new IntList()).add(code);
+                }
+            }
+        }
+        Map<Long, int[]> codesByTrigram = new HashMap<>(postings.size() * 2);
+        postings.forEach((trigram, codes) -> codesByTrigram.put(trigram, codes.toArray()));
+
+        int[] rowOffsets = new int[cardinality + 1];
+        for (int code : column.codes) {
+            if (code != DictionaryColumn.NULL_CODE) {
+                rowOffsets[code + 1]++;
+            }
+        }
+        for (int code = 0; code < cardinality; code++) {
+            rowOffsets[code + 1] += rowOffsets[code];
+        }
+        int[] rowsByCode = new int[rowOffsets[cardinality]];
+        int[] cursor = Arrays.copyOf(rowOffsets, cardinality);
+        for (int row = 0; row < column.codes.length; row++) {
+            int code = column.codes[row];
+            if (code != DictionaryColumn.NULL_CODE) {
+                rowsByCode[cursor[code]++] = row;
+            }
+        }
+        return new TrigramIndex(column, codesByTrigram, rowOffsets, rowsByCode);
+    }
+
+    private static long trigram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    /**
+     * Rows whose value contains the (already lower-cased) needle
+     */
+    BitSet rowsContaining(String lowerNeedle, int rowCount) {
+        BitSet rows = new BitSet(rowCount);
+        for (int code : codesContaining(lowerNeedle)) {
+            for (int i = rowOffsets[code]; i < rowOffsets[code + 1]; i++) {
+                rows.set(rowsByCode[i]);
+            }
+        }
+        return rows;
+    }
+
+    int[] codesContaining(String lowerNeedle) {
+        if (lowerNeedle.length() < 3) {
+            boolean[] matches = column.codesMatching(v -> v.contains(lowerNeedle));
+            IntList codes = new IntList();
+            for (int code = 0; code < matches.length; code++) {
+                if (matches[code]) {
+                    codes.add(code);
+                }
+            }
+            return codes.toArray();
+        }
+
+        // Collect the needle's trigram postings; a missing trigram means no value can match
+        List<int[]> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= lowerNeedle.length(); i++) {
+            int[] codes = codesByTrigram.get(trigram(lowerNeedle, i));
+            if (codes == null) {
+                return NO_CODES;
+            }
+            lists.add(codes);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.length));
+
+        int[] candidates = lists.get(0);
+        for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+            candidates = intersectSorted(candidates, lists.get(i));
+        }
+
+        // Trigrams can match out of order, so verify each candidate exactly
+        IntList verified = new IntList();
+        for (int code : candidates) {
+            if (column.lowerValues[code].contains(lowerNeedle)) {
+                verified.add(code);
+            }
+        }
+        return verified.toArray();
+    }
+
+    private static int[] intersectSorted(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+}
+
+/**
+ * Minimal growable int array (avoids boxing while building indexes)
+ */
+final class IntList {
+    private int[] data = new int[8];
+    private int size;
+
+    void add(int value) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, size * 2);
+        }
+        data[size++] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(data, size);
+    }
+}
+
+// 6. Holder for the Current Snapshot
+@Component
+public class ProductServicesSnapshotHolder {
+    private static final Logger logger = LogManager.getLogger(ProductServicesSnapshotHolder.class);
+
+    // Rebuild from the (Redis-cached) complete dataset after this long, so changes loaded by other nodes are picked up
+    @Value("${product.services.snapshot.ttl-minutes:60}")
+    private long snapshotTtlMinutes;
+
+    private final AtomicLong versionSequence = new AtomicLong();
+    private volatile ProductServicesSnapshot current;
+
+    // Called on the refresh executor after each new snapshot is swapped in - never on the publishing
+    // thread, which may hold the first-load lock that cold-start requests are waiting on
+    private final List<Consumer<ProductServicesSnapshot>> publishListeners = new CopyOnWriteArrayList<>();
+
+    // Stale snapshots are rebuilt here while the old one keeps serving requests
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "snapshot-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ProductServicesSnapshot current() {
+        return current;
+    }
+
+    public void addPublishListener(Consumer<ProductServicesSnapshot> listener) {
+        publishListeners.add(listener);
+    }
+
+    /**
+     * Returns the current snapshot. Only the very first load blocks; once a snapshot exists, a stale
+     * one is returned as-is and rebuilt in the background (stale-while-revalidate).
+     */
+    public ProductServicesSnapshot getOrLoad(Callable<List<ProductServiceHierarchyRecordDTO>> loader) 
+            throws SQLException {
+        ProductServicesSnapshot snapshot = current;
+        if (snapshot != null) {
+            if (snapshot.isOlderThan(Duration.ofMinutes(snapshotTtlMinutes))) {
+                refreshInBackground(loader);
+            }
+            return snapshot;
+        }
+        synchronized (this) {
+            snapshot = current;
+            if (snapshot != null) {
+                return snapshot;
+            }
+            try {
+                return publish(loader.call());
+            } catch (SQLException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to load complete dataset snapshot", e);
+            }
+        }
+    }
+
+    private void refreshInBackground(Callable<List<ProductServiceHierarchyRecordDTO>> loader) {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            try {
+                publish(loader.call());
+            } catch (Exception e) {
+                logger.warn("Background snapshot refresh failed, keeping version {}: {}", 
+                    current.getVersion(), e.getMessage());
+            } finally {
+                refreshing.set(false);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Builds a new snapshot from the given records and swaps it in atomically
+     */
+    public ProductServicesSnapshot publish(List<ProductServiceHierarchyRecordDTO> records) {
+        if (records == null) {
+            return current;
+        }
+        long startTime = System.currentTimeMillis();
+        ProductServicesSnapshot snapshot = ProductServicesSnapshot.of(versionSequence.incrementAndGet(), records);
+        current = snapshot;
+        logger.info("Published product services snapshot version {} with {} rows in {}ms", 
+            snapshot.getVersion(), snapshot.size(), (System.currentTimeMillis() - startTime));
+        if (!publishListeners.isEmpty()) {
+            refreshExecutor.execute(() -> notifyListeners(snapshot));
+        }
+        return snapshot;
+    }
+
+    private void notifyListeners(ProductServicesSnapshot snapshot) {
+        if (current != snapshot) {
+            // Superseded while queued - its successor gets its own notification
+            return;
+        }
+        for (Consumer<ProductServicesSnapshot> listener : publishListeners) {
+            try {
+                listener.accept(snapshot);
+            } catch (Exception e) {
+                logger.warn("Snapshot publish listener failed: {}", e.getMessage());
+            }
+        }
+    }
+}
+
+// 7. Compiled Filter Predicates
+/**
+ * GlobalFilterDTO normalized once (trimmed, lower-cased) and compiled into an ordered array of
+ * conditions. Equality conditions on ids run first, then country/region/segment, then substring
+ * conditions with the longest needle first. test() allocates nothing per record.
+ */
+public final class CompiledFilter implements Predicate<ProductServiceHierarchyRecordDTO> {
+
+    // Declaration order is the static selectivity order for equality fields (most selective first)
+    public enum Field {
+        MDM_CUST_GEMS_ID(false),
+        MDM_CLIENT_GEMS_ID(false),
+        PARENT_ID(false),
+        COUNTRY(false),
+        REGION(false),
+        SEGMENT(false),
+        CLIENT_NAME(true),
+        CUSTOMER_NAME(true),
+        PARENT_NAME(true);
+
+        final boolean substring;
+
+        Field(boolean substring) {
+            this.substring = substring;
+        }
+    }
+
+    private interface Condition {
+        boolean test(ProductServiceHierarchyRecordDTO record);
+    }
+
+    private static final CompiledFilter EMPTY = new CompiledFilter(new EnumMap<>(Field.class));
+
+    private final EnumMap<Field, String> values;
+    private final Condition[] conditions;
+    private final List<Field> substringFields;
+
+    private CompiledFilter(EnumMap<Field, String> values) {
+        this.values = values;
+
+        List<Field> equalityFields = new ArrayList<>();
+        List<Field> substrings = new ArrayList<>();
+        for (Field field : values.keySet()) { // EnumMap iterates in declaration order
+            (field.substring ? substrings : equalityFields).add(field);
+        }
+        substrings.sort(Comparator.comparingInt((Field f) -> values.get(f).length()).reversed());
+        this.substringFields = Collections.unmodifiableList(substrings);
+
+        List<Condition> ordered = new ArrayList<>();
+        for (Field field : equalityFields) {
+            ordered.add(equalityCondition(field, values.get(field)));
+        }
+        for (Field field : substrings) {
+            ordered.add(substringCondition(field, values.get(field)));
+        }
+        this.conditions = ordered.toArray(new Condition[0]);
+    }
+
+    public static CompiledFilter compile(GlobalFilterDTO filter) {
+        if (filter == null) {
+            return EMPTY;
+        }
+        EnumMap<Field, String> values = new EnumMap<>(Field.class);
+        put(values, Field.CLIENT_NAME, filter.getClientName());
+        put(values, Field.SEGMENT, filter.getSegment());
+        put(values, Field.REGION, filter.getRegion());
+        put(values, Field.COUNTRY, filter.getCountry());
+        put(values, Field.CUSTOMER_NAME, filter.getCustomerName());
+        put(values, Field.PARENT_ID, filter.getParentId());
+        put(values, Field.PARENT_NAME, filter.getParentName());
+        put(values, Field.MDM_CLIENT_GEMS_ID, filter.getMdmClientGemsId());
+        put(values, Field.MDM_CUST_GEMS_ID, filter.getMdmCustGemsId());
+        // Add other filter fields as needed
+        return values.isEmpty() ? EMPTY : new CompiledFilter(values);
+    }
+
+    private static void put(EnumMap<Field, String> values, Field field, String raw) {
+        if (raw != null && !raw.trim().isEmpty()) {
+            values.put(field, raw.trim().toLowerCase());
+        }
+    }
+
+    private static Condition equalityCondition(Field field, String value) {
+        switch (field) {
+            case SEGMENT: return r -> r.segment() != null && r.segment().equalsIgnoreCase(value);
+            case REGION: return r -> r.region() != null && r.region().equalsIgnoreCase(value);
+            case COUNTRY: return r -> r.country() != null && r.country().equalsIgnoreCase(value);
+            case PARENT_ID: return r -> r.parentId() != null && r.parentId().equalsIgnoreCase(value);
+            case MDM_CLIENT_GEMS_ID: return r -> r.mdmClientGemsId() != null && r.mdmClientGemsId().equalsIgnoreCase(value);
+            case MDM_CUST_GEMS_ID: return r -> r.mdmCustGemsId() != null && r.mdmCustGemsId().equalsIgnoreCase(value);
+            default: throw new IllegalArgumentException("Not an equality field: " + field);
+        }
+    }
+
+    private static Condition substringCondition(Field field, String needle) {
+        switch (field) {
+            case CLIENT_NAME: return r -> containsIgnoreCase(r.clientName(), needle);
+            case CUSTOMER_NAME: return r -> containsIgnoreCase(r.customerName(), needle);
+            case PARENT_NAME: return r -> containsIgnoreCase(r.parentName(), needle);
+            default: throw new IllegalArgumentException("Not a substring field: " + field);
+        }
+    }
+
+    /**
+     * Case-insensitive contains without lower-casing the haystack (no per-record String allocation)
+     */
+    static boolean containsIgnoreCase(String haystack, String lowerNeedle) {
+        if (haystack == null) {
+            return false;
+        }
+        int max = haystack.length() - lowerNeedle.length();
+        for (int i = 0; i <= max; i++) {
+            if (haystack.regionMatches(true, i, lowerNeedle, 0, lowerNeedle.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean test(ProductServiceHierarchyRecordDTO record) {
+        for (Condition condition : conditions) {
+            if (!condition.test(record)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    /**
+     * Canonical form of the filter: normalized values in field order, so equivalent
+     * filters ("  NA" / "na") produce the same key
+     */
+    public String canonicalKey() {
+        if (values.isEmpty()) {
+            return "*";
+        }
+        StringBuilder key = new StringBuilder();
+        values.forEach((field, value) -> {
+            if (key.length() > 0) {
+                key.append('|');
+            }
+            key.append(field.name()).append('=').append(value);
+        });
+        return key.toString();
+    }
+
+    public String value(Field field) {
+        return values.get(field);
+    }
+
+    public List<Field> substringFieldsBySelectivity() {
+        return substringFields;
+    }
+
+    public String segment() {
+        return values.get(Field.SEGMENT);
+    }
+
+    public String region() {
+        return values.get(Field.REGION);
+    }
+
+    public String country() {
+        return values.get(Field.COUNTRY);
+    }
+
+    public String parentId() {
+        return values.get(Field.PARENT_ID);
+    }
+
+    public String mdmClientGemsId() {
+        return values.get(Field.MDM_CLIENT_GEMS_ID);
+    }
+
+    public String mdmCustGemsId() {
+        return values.get(Field.MDM_CUST_GEMS_ID);
+    }
+}
+
+// 8. Memoized Hierarchy Results
+/**
+ * Built hierarchies keyed by CompiledFilter.canonicalKey(), bounded by weight: an entry weighs the
+ * number of rows it was built from, so one unfiltered hierarchy counts as much as thousands of
+ * narrow ones. Entries belong to one snapshot version; when a newer version is seen the whole
+ * generation is swapped out at once, so stale hierarchies are never served. Concurrent misses for
+ * the same filter build the hierarchy once.
+ */
+@Component
+public class HierarchyResultCache {
+    private static final Logger logger = LogManager.getLogger(HierarchyResultCache.class);
+
+    // Total source rows of all cached hierarchies; the unfiltered hierarchy alone weighs the snapshot size
+    @Value("${product.services.hierarchy-cache.max-rows:3000000}")
+    private long maxRows;
+
+    // null until the first snapshot version is seen
+    private final AtomicReference<Generation> generation = new AtomicReference<>();
+
+    /**
+     * A hierarchy and the number of rows it was built from (its cache weight)
+     */
+    public record BuiltHierarchy(List<ParentDataRecordDTO> parents, int sourceRows) {}
+
+    public List<ParentDataRecordDTO> get(long snapshotVersion, String filterKey, Supplier<BuiltHierarchy> builder) {
+        Generation current = generationFor(snapshotVersion);
+        if (current == null) {
+            // Caller holds an older snapshot: build without caching into the newer generation
+            return builder.get().parents();
+        }
+
+        // Caffeine runs the builder once per key; concurrent callers for the same filter wait for it.
+        // Shared between requests, so hand out an unmodifiable view.
+        return current.entries.get(filterKey, key -> {
+            BuiltHierarchy built = builder.get();
+            return new BuiltHierarchy(Collections.unmodifiableList(built.parents()), built.sourceRows());
+        }).parents();
+    }
+
+    public void clear() {
+        generation.set(null);
+    }
+
+    /**
+     * @return the generation for this version, or null when a newer version is already cached
+     */
+    private Generation generationFor(long snapshotVersion) {
+        while (true) {
+            Generation current = generation.get();
+            if (current != null && current.snapshotVersion == snapshotVersion) {
+                return current;
+            }
+            if (current != null && current.snapshotVersion > snapshotVersion) {
+                return null;
+            }
+            Generation next = new Generation(snapshotVersion, maxRows);
+            if (generation.compareAndSet(current, next)) {
+                logger.info("Hierarchy cache invalidated: snapshot version {} -> {}",
+                    current == null ? -1 : current.snapshotVersion, snapshotVersion);
+                return next;
+            }
+        }
+    }
+
+    private static final class Generation {
+        final long snapshotVersion;
+        final com.github.benmanes.caffeine.cache.Cache<String, BuiltHierarchy> entries;
+
+        Generation(long snapshotVersion, long maxRows) {
+            this.snapshotVersion = snapshotVersion;
+            this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxRows)
+                .weigher((String key, BuiltHierarchy value) -> Math.max(1, value.sourceRows()))
+                .build();
+        }
+    }
+}
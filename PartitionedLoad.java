@@ -0,0 +1,211 @@
+// 1. Partitioned Product Services Loader
+/**
+ * Loads the complete product-services dataset as N partition queries running concurrently, each on
+ * its own pooled connection, instead of one query pulling every row through a single connection.
+ *
+ * Rows are assigned to partitions by pmod(hash(partition column), N) - Databricks SQL functions, so
+ * the filter is evaluated on the warehouse side and every row lands in exactly one partition (rows
+ * with a NULL key included: hash(NULL) is a constant). A failed partition is retried on its own;
+ * rows are only kept from a partition's successful attempt, so a retry never duplicates rows.
+ * The whole load fails if any partition gives up. loadAll(maxRows) also stops every partition once
+ * they have read more than maxRows rows together.
+ *
+ * The base query is wrapped as a subquery, so the warehouse evaluates it once per partition (N scans
+ * of a view instead of one), and its ORDER BY is not carried through the outer filter. The merged
+ * list is therefore sorted by parent id afterwards (stable, so a parent's rows keep the order the
+ * warehouse returned them in). Point the base query at a table rather than an expensive view when
+ * the partition count is high.
+ *
+ * Partitions are read at slightly different moments, so a row changed during the load may appear
+ * in its old state. The delta watermark is taken before the load starts, so the next delta refresh
+ * picks such rows up again.
+ */
+@Repository
+public class ProductServicesPartitionedLoader {
+    private static final Logger logger = LogManager.getLogger(ProductServicesPartitionedLoader.class);
+
+    // %1$s = base query, %2$s = partition column; {schema} in the base query is resolved by Utility.SqlWithSchema
+    private static final String PARTITION_QUERY =
+        "SELECT * FROM (%1$s) ps WHERE pmod(hash(ps.%2$s), :partitions) = :partition";
+
+    // The partition column is spliced into the SQL, so only a plain column name is accepted
+    private static final Pattern COLUMN_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    // Row order of the complete dataset; delta merges insert new rows in the same order
+    static final Comparator<ProductServiceHierarchyRecordDTO> PARENT_ORDER = Comparator.comparing(
+        ProductServiceHierarchyRecordDTO::parentId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Number of slices the dataset is split into; more partitions than threads evens out skew
+    @Value("${product.services.partitioned.partitions:8}")
+    private int partitions;
+
+    // Concurrent partition queries (= connections taken from the pool at once)
+    @Value("${product.services.partitioned.parallelism:4}")
+    private int parallelism;
+
+    // parent_id keeps a parent's rows together; region also works but has few distinct values
+    @Value("${product.services.partitioned.column:parent_id}")
+    private String partitionColumn;
+
+    @Value("${product.services.partitioned.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${product.services.partitioned.retry-backoff:PT2S}")
+    private Duration retryBackoff;
+
+    @Value("${product.services.jdbc.fetch-size:5000}")
+    private int fetchSize;
+
+    private NamedParameterJdbcTemplate partitionJdbcTemplate;
+    private ExecutorService partitionExecutor;
+
+    @PostConstruct
+    public void init() {
+        if (!COLUMN_NAME.matcher(partitionColumn).matches()) {
+            throw new IllegalArgumentException(
+                "product.services.partitioned.column must be a plain column name, got: " + partitionColumn);
+        }
+        JdbcTemplate template = new JdbcTemplate(jdbcTemplate.getDataSource());
+        template.setFetchSize(fetchSize);
+        partitionJdbcTemplate = new NamedParameterJdbcTemplate(template);
+        AtomicInteger threadCount = new AtomicInteger();
+        partitionExecutor = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "product-services-partition-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        partitionExecutor.shutdownNow();
+    }
+
+    /**
+     * All product-services rows, loaded partition by partition in parallel
+     */
+    public List<ProductServiceHierarchyRecordDTO> loadAll() throws SQLException {
+        return loadAll(0);
+    }
+
+    /**
+     * @param maxRows abort the load once all partitions together have read more rows than this (0 = no limit)
+     */
+    public List<ProductServiceHierarchyRecordDTO> loadAll(long maxRows) throws SQLException {
+        long startTime = System.currentTimeMillis();
+        int partitionCount = Math.max(1, partitions);
+        String sql = String.format(PARTITION_QUERY,
+            Utility.SqlWithSchema(ProductAndServicesConstants.PRODUCT_SERVICES_UPDATED), partitionColumn);
+
+        AtomicLong rowsRead = new AtomicLong();
+        List<Future<PartitionResult>> futures = new ArrayList<>(partitionCount);
+        for (int partition = 0; partition < partitionCount; partition++) {
+            int current = partition;
+            futures.add(partitionExecutor.submit(() -> loadPartition(sql, current, partitionCount, rowsRead, maxRows)));
+        }
+
+        List<PartitionResult> results = new ArrayList<>(partitionCount);
+        try {
+            for (Future<PartitionResult> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while loading product services partitions", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw cause instanceof SQLException
+                ? (SQLException) cause
+                : new SQLException("Partitioned product services load failed", cause);
+        } finally {
+            // One partition gave up - don't keep the others' connections busy for nothing
+            for (Future<PartitionResult> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        int rowCount = 0;
+        PartitionResult slowest = results.get(0);
+        for (PartitionResult result : results) {
+            rowCount += result.rows().size();
+            if (result.durationMs() > slowest.durationMs()) {
+                slowest = result;
+            }
+        }
+        List<ProductServiceHierarchyRecordDTO> records = new ArrayList<>(rowCount);
+        for (PartitionResult result : results) {
+            records.addAll(result.rows());
+        }
+        // Partitions interleave parents arbitrarily; restore a deterministic order
+        records.sort(PARENT_ORDER);
+
+        logger.info("Loaded {} product services rows in {} partitions by {} (parallelism {}) in {}ms, " +
+            "slowest partition {} ({} rows) took {}ms", rowCount, partitionCount, partitionColumn, parallelism,
+            (System.currentTimeMillis() - startTime), slowest.partition(), slowest.rows().size(), slowest.durationMs());
+        return records;
+    }
+
+    private PartitionResult loadPartition(String sql, int partition, int partitionCount,
+                                          AtomicLong rowsRead, long maxRows) throws SQLException {
+        Map<String, Object> paramMap = new HashMap<>();
+        paramMap.put("partitions", partitionCount);
+        paramMap.put("partition", partition);
+        ProductServiceHierarchyRecordRowMapper recordMapper = new ProductServiceHierarchyRecordRowMapper();
+
+        for (int attempt = 1; ; attempt++) {
+            long startTime = System.currentTimeMillis();
+            // Rows of a failed attempt are read again, so they are taken off the shared count
+            long[] attemptRows = {0};
+            RowMapper<ProductServiceHierarchyRecordDTO> rowMapper = (rs, rowNum) -> {
+                attemptRows[0]++;
+                if (maxRows > 0 && rowsRead.incrementAndGet() > maxRows) {
+                    throw ProductServicesServiceImpl.rowLimitExceeded(maxRows);
+                }
+                return recordMapper.mapRow(rs, rowNum);
+            };
+            try {
+                List<ProductServiceHierarchyRecordDTO> rows = partitionJdbcTemplate.query(sql, paramMap, rowMapper);
+                long durationMs = System.currentTimeMillis() - startTime;
+                logger.debug("Partition {}/{} loaded {} rows in {}ms (attempt {})",
+                    partition, partitionCount, rows.size(), durationMs, attempt);
+                return new PartitionResult(partition, rows, durationMs);
+            } catch (DataAccessException e) {
+                rowsRead.addAndGet(-attemptRows[0]);
+                if (attempt >= maxAttempts || Thread.currentThread().isInterrupted()) {
+                    throw new SQLException("Partition " + partition + "/" + partitionCount + " failed after "
+                        + attempt + " attempts", e);
+                }
+                logger.warn("Partition {}/{} failed (attempt {} of {}), retrying in {}: {}",
+                    partition, partitionCount, attempt, maxAttempts, retryBackoff, e.getMessage());
+                try {
+                    Thread.sleep(retryBackoff.toMillis() * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while retrying partition " + partition, ie);
+                }
+            }
+        }
+    }
+
+    private record PartitionResult(int partition, List<ProductServiceHierarchyRecordDTO> rows, long durationMs) {}
+}
+
+// 2. Configuration Example
+/*
+# application.properties
+product.services.partitioned.enabled=true        # false = single streaming query
+product.services.partitioned.partitions=8
+product.services.partitioned.parallelism=4       # keep below the connection pool size
+product.services.partitioned.column=parent_id    # plain column name of the base query
+product.services.partitioned.max-attempts=3
+product.services.partitioned.retry-backoff=PT2S  # multiplied by the attempt number
+
+# Each running partition holds one connection, so the pool needs parallelism + the usual headroom
+spring.datasource.hikari.maximum-pool-size=10
+*/
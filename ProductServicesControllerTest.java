@@ -3,12 +3,12 @@ void testGetProductServicesOptimization_Success() throws Exception {
     // Arrange
     List<CustomerData> customers = List.of(
         new CustomerData("cust1", "client1", "Customer 1", "Customer", "Segment A", "Region A",
-            "1", "2", "3", "4", "5", "6", "7", "8", List.of())
+            1, 2, 3, 4, 5, 6, 7, 8, 9, List.of())
     );
 
     List<ClientData> clients = List.of(
         new ClientData("client1", 1L, "Client 1", "Client", "Segment A", "Region A",
-            "1", "2", "3", "4", "5", "6", "7", "8", customers)
+            1, 2, 3, 4, 5, 6, 7, 8, 9, customers)
     );
 
     ParentData parentData = new ParentData(
@@ -17,15 +17,15 @@ void testGetProductServicesOptimization_Success() throws Exception {
         "Parent",
         "Segment A",
         "Region A",
-        "1",
-        "2",
-        "3",
-        "4",
-        "5",
-        "6",
-        "7",
-        "8",
-        "9",
+        1,
+        2,
+        3,
+        4,
+        5,
+        6,
+        7,
+        8,
+        9,
         clients
     );
 
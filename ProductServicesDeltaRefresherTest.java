@@ -0,0 +1,135 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class ProductServicesDeltaRefresherTest {
+
+    private static final Timestamp T1 = Timestamp.valueOf("2025-01-01 10:00:00");
+    private static final Timestamp T2 = Timestamp.valueOf("2025-01-01 11:00:00");
+
+    private static ProductServiceHierarchyRecordDTO row(String custId, String country, int count) {
+        return row("100", custId, country, count);
+    }
+
+    private static ProductServiceHierarchyRecordDTO row(String parentId, String custId, String country, int count) {
+        int[] counts = new int[ProductServicesSnapshot.COUNT_COLUMNS];
+        counts[0] = count;
+        return ProductServicesSnapshot.newRecord("Parent " + parentId, parentId, "C1", custId, "NA", "US",
+            "Client 1", "Customer " + custId, counts, 0, country);
+    }
+
+    private static String key(ProductServiceHierarchyRecordDTO record) {
+        return ProductServicesDeltaRefresher.rowKey(record);
+    }
+
+    @Test
+    void upsertReplacesRowInPlace() {
+        ProductServiceHierarchyRecordDTO a = row("CU1", "USA", 1);
+        ProductServiceHierarchyRecordDTO b = row("CU2", "USA", 1);
+        ProductServiceHierarchyRecordDTO updatedA = row("CU1", "USA", 2);
+
+        ProductServicesDeltaRefresher.DeltaMerge merge = ProductServicesDeltaRefresher.merge(
+            List.of(List.of(a, b)), List.of(new ChangedRow(updatedA, T1)), Map.of());
+
+        Assertions.assertEquals(List.of(updatedA, b), merge.merged());
+        Assertions.assertEquals(List.of(updatedA, b), merge.replacedChunks().get(0));
+        Assertions.assertTrue(merge.appended().isEmpty());
+    }
+
+    @Test
+    void deleteRemovesRowAndLeavesOtherChunksUntouched() {
+        ProductServiceHierarchyRecordDTO a = row("CU1", "USA", 1);
+        ProductServiceHierarchyRecordDTO b = row("CU2", "USA", 1);
+        ProductServiceHierarchyRecordDTO c = row("CU3", "USA", 1);
+
+        ProductServicesDeltaRefresher.DeltaMerge merge = ProductServicesDeltaRefresher.merge(
+            List.of(List.of(a, b), List.of(c)), List.of(), Map.of(key(b), T1));
+
+        Assertions.assertEquals(List.of(a, c), merge.merged());
+        Assertions.assertEquals(List.of(a), merge.replacedChunks().get(0));
+        Assertions.assertFalse(merge.replacedChunks().containsKey(1));
+    }
+
+    @Test
+    void reinsertAfterDeleteKeepsRow() {
+        ProductServiceHierarchyRecordDTO a = row("CU1", "USA", 1);
+        ProductServiceHierarchyRecordDTO reinserted = row("CU1", "USA", 5);
+
+        ProductServicesDeltaRefresher.DeltaMerge merge = ProductServicesDeltaRefresher.merge(
+            List.of(List.of(a)), List.of(new ChangedRow(reinserted, T2)), Map.of(key(a), T1));
+
+        Assertions.assertEquals(List.of(reinserted), merge.merged());
+    }
+
+    @Test
+    void deleteAfterChangeWins() {
+        ProductServiceHierarchyRecordDTO a = row("CU1", "USA", 1);
+        ProductServiceHierarchyRecordDTO updatedA = row("CU1", "USA", 5);
+
+        ProductServicesDeltaRefresher.DeltaMerge merge = ProductServicesDeltaRefresher.merge(
+            List.of(List.of(a)), List.of(new ChangedRow(updatedA, T1)), Map.of(key(a), T2));
+
+        Assertions.assertTrue(merge.merged().isEmpty());
+        Assertions.assertTrue(merge.appended().isEmpty());
+    }
+
+    @Test
+    void duplicateKeyAcrossCountriesUpdatesOnlyMatchingCountry() {
+        ProductServiceHierarchyRecordDTO usa = row("CU1", "USA", 1);
+        ProductServiceHierarchyRecordDTO gbr = row("CU1", "GBR", 1);
+        ProductServiceHierarchyRecordDTO updatedGbr = row("CU1", "GBR", 7);
+
+        ProductServicesDeltaRefresher.DeltaMerge merge = ProductServicesDeltaRefresher.merge(
+            List.of(List.of(usa), List.of(gbr)), List.of(new ChangedRow(updatedGbr, T1)), Map.of());
+
+        Assertions.assertEquals(List.of(usa, updatedGbr), merge.merged());
+        Assertions.assertFalse(merge.replacedChunks().containsKey(0));
+    }
+
+    @Test
+    void everyOccurrenceOfChangedRowIsReplaced() {
+        ProductServiceHierarchyRecordDTO a = row("CU1", "USA", 1);
+        ProductServiceHierarchyRecordDTO updatedA = row("CU1", "USA", 3);
+
+        ProductServicesDeltaRefresher.DeltaMerge merge = ProductServicesDeltaRefresher.merge(
+            List.of(List.of(a), List.of(a)), List.of(new ChangedRow(updatedA, T1)), Map.of());
+
+        Assertions.assertEquals(List.of(updatedA, updatedA), merge.merged());
+        Assertions.assertTrue(merge.appended().isEmpty());
+    }
+
+    @Test
+    void newRowIsAppended() {
+        ProductServiceHierarchyRecordDTO a = row("CU1", "USA", 1);
+        ProductServiceHierarchyRecordDTO added = row("CU9", "USA", 1);
+
+        ProductServicesDeltaRefresher.DeltaMerge merge = ProductServicesDeltaRefresher.merge(
+            List.of(List.of(a)), List.of(new ChangedRow(added, T1)), new HashMap<>());
+
+        Assertions.assertEquals(List.of(a, added), merge.merged());
+        Assertions.assertEquals(List.of(added), merge.appended());
+        Assertions.assertTrue(merge.replacedChunks().isEmpty());
+    }
+
+    @Test
+    void newRowIsInsertedInParentOrder() {
+        ProductServiceHierarchyRecordDTO a = row("100", "CU1", "USA", 1);
+        ProductServiceHierarchyRecordDTO b = row("300", "CU2", "USA", 1);
+        ProductServiceHierarchyRecordDTO c = row("400", "CU3", "USA", 1);
+        ProductServiceHierarchyRecordDTO added = row("200", "CU9", "USA", 1);
+        ProductServiceHierarchyRecordDTO addedLast = row("500", "CU8", "USA", 1);
+
+        ProductServicesDeltaRefresher.DeltaMerge merge = ProductServicesDeltaRefresher.merge(
+            List.of(List.of(a), List.of(b, c)),
+            List.of(new ChangedRow(addedLast, T1), new ChangedRow(added, T1)), Map.of());
+
+        Assertions.assertEquals(List.of(a, added, b, c, addedLast), merge.merged());
+        Assertions.assertEquals(List.of(added, b, c), merge.replacedChunks().get(1));
+        Assertions.assertFalse(merge.replacedChunks().containsKey(0));
+        Assertions.assertEquals(List.of(addedLast), merge.appended());
+    }
+}
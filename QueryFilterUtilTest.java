@@ -0,0 +1,79 @@
+package com.example.filters;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class QueryFilterUtilTest {
+
+    private final QueryFilterUtil queryFilterUtil = new QueryFilterUtil();
+
+    private static List<Integer> values(int count) {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            values.add(i);
+        }
+        return values;
+    }
+
+    @Test
+    void padToBucketRoundsUpToPowerOfTwoWithMinimum() {
+        Assertions.assertEquals(4, QueryFilterUtil.padToBucket(values(1)).size());
+        Assertions.assertEquals(4, QueryFilterUtil.padToBucket(values(4)).size());
+        Assertions.assertEquals(8, QueryFilterUtil.padToBucket(values(5)).size());
+        Assertions.assertEquals(8, QueryFilterUtil.padToBucket(values(8)).size());
+        Assertions.assertEquals(16, QueryFilterUtil.padToBucket(values(9)).size());
+    }
+
+    @Test
+    void padToBucketRepeatsLastValue() {
+        Assertions.assertEquals(List.of(1, 2, 3, 4, 5, 5, 5, 5), QueryFilterUtil.padToBucket(values(5)));
+        Assertions.assertEquals(List.of("US", "US", "US", "US"), QueryFilterUtil.padToBucket(List.of("US")));
+    }
+
+    @Test
+    void listValueBecomesPaddedInList() {
+        ParameterizedQuery query = queryFilterUtil.buildParameterizedDynamicQuery(
+            "SELECT * FROM client_table", Map.of("country_cd", List.of("US", "GB")));
+
+        Assertions.assertEquals("SELECT * FROM client_table WHERE country_cd in (:p0)", query.sql());
+        Assertions.assertEquals(List.of("US", "GB", "GB", "GB"), query.params().getValue("p0"));
+    }
+
+    @Test
+    void likeConditionRendersOperatorBeforeParameter() {
+        Map<String, Object> filterMap = new HashMap<>();
+        queryFilterUtil.addLikeCondition(filterMap, "client_name", "acme");
+
+        ParameterizedQuery query = queryFilterUtil.buildParameterizedDynamicQuery(
+            "SELECT * FROM client_table", filterMap);
+
+        Assertions.assertEquals("SELECT * FROM client_table WHERE client_name LIKE :p0", query.sql());
+        Assertions.assertEquals("%acme%", query.params().getValue("p0"));
+    }
+
+    @Test
+    void comparisonConditionAppendsToExistingWhere() {
+        Map<String, Object> filterMap = new HashMap<>();
+        queryFilterUtil.addComparisonCondition(filterMap, "annual_revenue", ">=", 1000);
+
+        ParameterizedQuery query = queryFilterUtil.buildParameterizedDynamicQuery(
+            "SELECT * FROM client_table WHERE active = 1", filterMap);
+
+        Assertions.assertEquals("SELECT * FROM client_table WHERE active = 1 AND annual_revenue >= :p0", query.sql());
+        Assertions.assertEquals(1000, query.params().getValue("p0"));
+    }
+
+    @Test
+    void emptyFilterLeavesBaseQueryUnchanged() {
+        ParameterizedQuery query = queryFilterUtil.buildParameterizedDynamicQuery(
+            "SELECT * FROM client_table", Collections.singletonMap("country_cd", List.of()));
+
+        Assertions.assertEquals("SELECT * FROM client_table", query.sql());
+    }
+}
@@ -0,0 +1,171 @@
+// 1. Row Mapper Benchmark
+import com.yourcompany.dto.RepositoryResponseItem;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Compares RepositoryResponseItemRowMapper (by label) with IndexedRepositoryResponseItemRowMapper
+ * (by index, interned) over a synthetic ResultSet, without a database.
+ *
+ * The synthetic ResultSet resolves labels through a case-insensitive map like most drivers do and
+ * creates fresh String instances per row like a driver decoding the wire format, so both the label
+ * lookup cost and the duplicate-string footprint show up. Row generation is included in both timings.
+ *
+ * Usage: java RowMapperBenchmark [rows]   (default 1,000,000; run with e.g. -Xmx4g)
+ */
+public class RowMapperBenchmark {
+
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private static final String[] COLUMNS = columns();
+
+    public static void main(String[] args) throws SQLException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        System.out.println("--- RowMapper Benchmark (" + rows + " rows) ---");
+        run("By label", RepositoryResponseItemRowMapper::new, rows);
+        run("By index + interning", IndexedRepositoryResponseItemRowMapper::new, rows);
+    }
+
+    private static void run(String name, Supplier<RowMapper<RepositoryResponseItem>> mappers, int rows)
+            throws SQLException {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            mapAll(mappers.get(), rows);
+        }
+
+        long mapNanos = 0;
+        List<RepositoryResponseItem> items = null;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            items = null;
+            long start = System.nanoTime();
+            items = mapAll(mappers.get(), rows);
+            mapNanos += System.nanoTime() - start;
+        }
+
+        long retained = usedHeap();
+        items = null;
+        retained -= usedHeap();
+
+        System.out.println(String.format("%-24s map: %6d ms | retained heap: %,8d KB",
+            name, TimeUnit.NANOSECONDS.toMillis(mapNanos / MEASURED_ROUNDS), retained / 1024));
+    }
+
+    private static List<RepositoryResponseItem> mapAll(RowMapper<RepositoryResponseItem> mapper, int rows)
+            throws SQLException {
+        ResultSet rs = syntheticResultSet(rows);
+        List<RepositoryResponseItem> items = new ArrayList<>(rows);
+        int rowNum = 0;
+        while (rs.next()) {
+            items.add(mapper.mapRow(rs, rowNum++));
+        }
+        return items;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static String[] columns() {
+        String[] columns = new String[IndexedRepositoryResponseItemRowMapper.STRING_COLUMNS.length
+            + IndexedRepositoryResponseItemRowMapper.COUNT_COLUMNS.length];
+        System.arraycopy(IndexedRepositoryResponseItemRowMapper.STRING_COLUMNS, 0, columns, 0,
+            IndexedRepositoryResponseItemRowMapper.STRING_COLUMNS.length);
+        System.arraycopy(IndexedRepositoryResponseItemRowMapper.COUNT_COLUMNS, 0, columns,
+            IndexedRepositoryResponseItemRowMapper.STRING_COLUMNS.length,
+            IndexedRepositoryResponseItemRowMapper.COUNT_COLUMNS.length);
+        return columns;
+    }
+
+    // Shaped like production: few segments/regions, ~10 customers per client, ~5 clients per parent
+    static ResultSet syntheticResultSet(int rows) {
+        String[] segments = {"NA", "ECA", "APAC", "LATAM"};
+        String[] regions = {"US", "UK", "DE", "JP", "BR", "IN"};
+        Map<String, Integer> byLabel = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < COLUMNS.length; i++) {
+            byLabel.put(COLUMNS[i], i + 1);
+        }
+        Object[] current = new Object[COLUMNS.length];
+        int[] row = {-1};
+
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(
+            ResultSetMetaData.class.getClassLoader(), new Class<?>[] {ResultSetMetaData.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getColumnCount":
+                        return COLUMNS.length;
+                    case "getColumnLabel":
+                    case "getColumnName":
+                        return COLUMNS[(Integer) args[0] - 1];
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+
+        return (ResultSet) Proxy.newProxyInstance(
+            ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "next": {
+                        if (++row[0] >= rows) {
+                            return false;
+                        }
+                        int parent = row[0] / 50;
+                        int client = row[0] / 10;
+                        // new String(...) so equal values are distinct instances, as decoded by a driver
+                        current[0] = new String("Parent " + parent);
+                        current[1] = new String(Integer.toString(100000 + parent));
+                        current[2] = new String("C" + client);
+                        current[3] = "CU" + row[0];
+                        current[4] = new String(segments[parent % segments.length]);
+                        current[5] = new String(regions[parent % regions.length]);
+                        current[6] = new String("Client Name " + client);
+                        current[7] = "Customer Name " + row[0];
+                        for (int col = 8; col < COLUMNS.length; col++) {
+                            current[col] = (row[0] * 31 + col) % 200;
+                        }
+                        return true;
+                    }
+                    case "getMetaData":
+                        return metaData;
+                    case "findColumn":
+                        return column(byLabel, (String) args[0]);
+                    case "getString":
+                        return (String) current[index(byLabel, args[0])];
+                    case "getInt":
+                        return (Integer) current[index(byLabel, args[0])];
+                    case "wasNull":
+                        return false;
+                    case "close":
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    private static int index(Map<String, Integer> byLabel, Object column) throws SQLException {
+        return (column instanceof Integer ? (Integer) column : column(byLabel, (String) column)) - 1;
+    }
+
+    private static int column(Map<String, Integer> byLabel, String label) throws SQLException {
+        Integer column = byLabel.get(label);
+        if (column == null) {
+            throw new SQLException("Column '" + label + "' not found");
+        }
+        return column;
+    }
+}
@@ -0,0 +1,198 @@
+// 1. In-JVM Single Flight
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the loader, every caller
+ * that arrives while it is running waits for and receives the same result (or exception).
+ * Nothing is retained once the load completes - caching the result is the caller's job.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    public V load(K key, Callable<V> loader) throws Exception {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            V value = loader.call();
+            created.complete(value);
+            return value;
+        } catch (Throwable t) {
+            created.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+}
+
+// 2. Cross-Node Single Flight (Redis lock)
+/**
+ * Optional second stage after SingleFlight: only the node holding the Redis lock for a key runs
+ * the loader. Other nodes poll the cache until the value appears or the lock is released.
+ * No node ever runs the loader while another node holds the lock: if the holder dies, the lock
+ * expires after lockTtl and the waiting nodes compete for it again.
+ *
+ * load() waits as long as the lock is held and is meant for preload, refresh and short loads.
+ * loadOnRequest() waits at most requestWaitTimeout and then fails with LoadInProgressException, so a
+ * request never sits behind another node's multi-minute load - the caller serves what it already
+ * has (previous snapshot, a narrower query) instead.
+ *
+ * The lock is SET NX PX with a random token and is released with a compare-and-delete script,
+ * so a node never releases a lock it no longer owns.
+ */
+public class DistributedSingleFlight {
+    private static final Logger logger = LoggerFactory.getLogger(DistributedSingleFlight.class);
+
+    static final String LOCK_PREFIX = "lock:load:";
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+        Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration lockTtl;
+    private final Duration requestWaitTimeout;
+    private final Duration pollInterval;
+
+    public DistributedSingleFlight(StringRedisTemplate redisTemplate, Duration lockTtl, Duration requestWaitTimeout,
+                                   Duration pollInterval) {
+        this.redisTemplate = redisTemplate;
+        this.lockTtl = lockTtl;
+        this.requestWaitTimeout = requestWaitTimeout;
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Another node is still loading the key and the request-path wait ran out
+     */
+    public static class LoadInProgressException extends IllegalStateException {
+        public LoadInProgressException(String key, Duration waited) {
+            super("Load of " + key + " still running on another node after " + waited);
+        }
+    }
+
+    /**
+     * Waits for another node's load for as long as it holds the lock (at most lockTtl per holder)
+     *
+     * @param key    lock name (cache name and key)
+     * @param lookup returns the cached value, or null on a miss
+     * @param loader loads the value AND stores it in the cache, so waiting nodes can see it
+     */
+    public <T> T load(String key, Supplier<T> lookup, Callable<T> loader) throws Exception {
+        return load(key, lookup, loader, null);
+    }
+
+    /**
+     * Request-path load: waits at most requestWaitTimeout for another node's load
+     *
+     * @throws LoadInProgressException if the other node is still loading after that
+     */
+    public <T> T loadOnRequest(String key, Supplier<T> lookup, Callable<T> loader) throws Exception {
+        return load(key, lookup, loader, requestWaitTimeout);
+    }
+
+    private <T> T load(String key, Supplier<T> lookup, Callable<T> loader, Duration maxWait) throws Exception {
+        String lockKey = LOCK_PREFIX + key;
+        String token = UUID.randomUUID().toString();
+        long deadline = maxWait != null ? System.currentTimeMillis() + maxWait.toMillis() : Long.MAX_VALUE;
+
+        while (true) {
+            if (tryAcquire(lockKey, token)) {
+                try {
+                    // Another node may have finished loading between our miss and taking the lock
+                    T cached = lookup.get();
+                    return cached != null ? cached : loader.call();
+                } finally {
+                    release(lockKey, token);
+                }
+            }
+
+            // Someone else is loading - wait for the value or for the lock to go away
+            while (isLocked(lockKey)) {
+                if (System.currentTimeMillis() >= deadline) {
+                    throw new LoadInProgressException(key, maxWait);
+                }
+                Thread.sleep(pollInterval.toMillis());
+                T cached = lookup.get();
+                if (cached != null) {
+                    logger.debug("Load of {} completed on another node", key);
+                    return cached;
+                }
+            }
+            T cached = lookup.get();
+            if (cached != null) {
+                return cached;
+            }
+            // Holder released (or lost) the lock without storing a value - compete again
+        }
+    }
+
+    private boolean tryAcquire(String lockKey, String token) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, token, lockTtl));
+        } catch (Exception e) {
+            // Redis unavailable - behave as the lock holder so the request still gets served
+            logger.warn("Could not acquire load lock {} - {}", lockKey, e.getMessage());
+            return true;
+        }
+    }
+
+    private boolean isLocked(String lockKey) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(lockKey));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void release(String lockKey, String token) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(lockKey), token);
+        } catch (Exception e) {
+            // Expires after lockTtl anyway
+            logger.warn("Could not release load lock {} - {}", lockKey, e.getMessage());
+        }
+    }
+}
+
+// 3. Single Flight Configuration
+@Configuration
+public class SingleFlightConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "cache.single-flight.distributed.enabled", havingValue = "true", matchIfMissing = true)
+    public DistributedSingleFlight distributedSingleFlight(
+            StringRedisTemplate stringRedisTemplate,
+            @Value("${cache.single-flight.lock-ttl:PT5M}") Duration lockTtl,
+            @Value("${cache.single-flight.request-wait-timeout:PT3S}") Duration requestWaitTimeout,
+            @Value("${cache.single-flight.poll-interval:PT0.5S}") Duration pollInterval) {
+        return new DistributedSingleFlight(stringRedisTemplate, lockTtl, requestWaitTimeout, pollInterval);
+    }
+}
+
+// 4. Configuration Example
+/*
+# application.properties
+cache.single-flight.distributed.enabled=true   # false = coalesce per JVM only
+cache.single-flight.lock-ttl=PT5M              # longer than the slowest complete dataset load
+cache.single-flight.request-wait-timeout=PT3S  # requests fail fast after this (preload / refresh wait for the lock)
+cache.single-flight.poll-interval=PT0.5S
+*/
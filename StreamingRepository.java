@@ -0,0 +1,230 @@
+// 1. Streaming Product Services Repository
+/**
+ * Streams PRODUCT_SERVICES_UPDATED rows instead of collecting them into a list first.
+ *
+ * forEachRow pipelines the work over two threads: a fetch thread runs the query (with
+ * product.services.jdbc.fetch-size rows per round trip) and maps rows into batches, while the
+ * calling thread consumes the previous batches. The batch queue is bounded, so at most
+ * (queue-capacity + 2) x batch-size mapped rows are in flight - the fetch thread simply blocks
+ * when the consumer falls behind.
+ *
+ * The complete-dataset load still collects every row, because the snapshot keeps them all; there
+ * the gain is the fetch size and mapping overlapping the network reads, not memory. Folding rows
+ * into a bounded consumer (filter / hierarchy build without the full list) is not implemented.
+ * It is only used when product.services.partitioned.enabled=false (partitioned loading is the default).
+ *
+ * A failed or interrupted fetch thread always fails the load: batches are never dropped, and the
+ * end-of-rows marker is always handed over.
+ *
+ * stream() is the simple single-thread variant and must be closed (try-with-resources), since it
+ * holds the connection open until then.
+ */
+@Repository
+public class ProductServicesStreamingRepository {
+    private static final Logger logger = LogManager.getLogger(ProductServicesStreamingRepository.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Rows per network round trip; the driver default is often far too small for a full-table read
+    @Value("${product.services.jdbc.fetch-size:5000}")
+    private int fetchSize;
+
+    @Value("${product.services.streaming.batch-size:1000}")
+    private int batchSize;
+
+    // Mapped batches waiting for the consumer
+    @Value("${product.services.streaming.queue-capacity:8}")
+    private int queueCapacity;
+
+    private JdbcTemplate streamingJdbcTemplate;
+    private ExecutorService fetchExecutor;
+
+    private static final List<Object> END_OF_ROWS = Collections.emptyList();
+
+    @PostConstruct
+    public void init() {
+        streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streamingJdbcTemplate.setFetchSize(fetchSize);
+        AtomicInteger threadCount = new AtomicInteger();
+        fetchExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "product-services-fetch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchExecutor.shutdownNow();
+    }
+
+    private String productServicesQuery() {
+        return Utility.SqlWithSchema(ProductAndServicesConstants.PRODUCT_SERVICES_UPDATED);
+    }
+
+    /**
+     * All product-services rows as ProductServiceHierarchyRecordDTO, pipelined to the consumer
+     */
+    public long forEachRow(Consumer<? super ProductServiceHierarchyRecordDTO> consumer) throws SQLException {
+        return pipeline(productServicesQuery(), new ProductServiceHierarchyRecordRowMapper(), consumer);
+    }
+
+    /**
+     * Single-threaded stream over all rows. Close it, or the connection stays checked out.
+     */
+    public Stream<ProductServiceHierarchyRecordDTO> stream() {
+        return streamingJdbcTemplate.queryForStream(productServicesQuery(), new ProductServiceHierarchyRecordRowMapper());
+    }
+
+    /**
+     * Runs the query on a fetch thread and hands mapped rows to the consumer on the calling thread
+     */
+    @SuppressWarnings("unchecked")
+    <T> long pipeline(String sql, RowMapper<T> rowMapper, Consumer<? super T> consumer) throws SQLException {
+        long startTime = System.currentTimeMillis();
+        BlockingQueue<List<?>> batches = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        AtomicBoolean cancelled = new AtomicBoolean();
+
+        Future<?> producer = fetchExecutor.submit(() -> {
+            try {
+                BatchingRowHandler<T> handler = new BatchingRowHandler<>(rowMapper, batches, cancelled);
+                streamingJdbcTemplate.query(sql, handler);
+                // RowCallbackHandler has no end-of-rows hook, so hand over the last partial batch here
+                handler.flush();
+                return null;
+            } finally {
+                // Delivered even when the fetch thread was interrupted, so the consumer always terminates
+                putTerminal(batches, cancelled);
+            }
+        });
+
+        long rows = 0;
+        try {
+            while (true) {
+                List<?> batch = batches.poll(100, TimeUnit.MILLISECONDS);
+                if (batch == null) {
+                    if (producer.isDone() && batches.isEmpty()) {
+                        // Cancelled before it ever ran (e.g. shutdownNow) - no terminal marker will come
+                        producer.get();
+                        throw new SQLException("Product services fetch ended without delivering its rows");
+                    }
+                    continue;
+                }
+                if (batch == END_OF_ROWS) {
+                    break;
+                }
+                for (Object row : batch) {
+                    consumer.accept((T) row);
+                }
+                rows += batch.size();
+            }
+            producer.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while streaming product services rows", e);
+        } catch (CancellationException e) {
+            throw new SQLException("Product services fetch was cancelled", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof DataAccessException && cause.getCause() instanceof SQLException) {
+                throw (SQLException) cause.getCause();
+            }
+            throw new SQLException("Streaming product services query failed", cause);
+        } finally {
+            if (!producer.isDone()) {
+                // Consumer failed - stop the fetch thread and release the connection
+                cancelled.set(true);
+                batches.clear();
+                producer.cancel(true);
+            }
+        }
+
+        logger.info("Streamed {} product services rows (fetch size {}, batch size {}) in {}ms",
+            rows, fetchSize, batchSize, (System.currentTimeMillis() - startTime));
+        return rows;
+    }
+
+    /**
+     * Maps rows into fixed-size batches and hands each full batch to the consumer queue
+     */
+    private final class BatchingRowHandler<T> implements RowCallbackHandler {
+        private final RowMapper<T> rowMapper;
+        private final BlockingQueue<List<?>> batches;
+        private final AtomicBoolean cancelled;
+        private List<T> batch = new ArrayList<>(batchSize);
+        private int rowNum;
+
+        BatchingRowHandler(RowMapper<T> rowMapper, BlockingQueue<List<?>> batches, AtomicBoolean cancelled) {
+            this.rowMapper = rowMapper;
+            this.batches = batches;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            if (cancelled.get()) {
+                // Abort the query; the consumer has stopped
+                throw new SQLException("Row streaming cancelled by consumer");
+            }
+            batch.add(rowMapper.mapRow(rs, rowNum++));
+            if (batch.size() == batchSize) {
+                try {
+                    flush();
+                } catch (InterruptedException e) {
+                    // Fails the query (and so the load) instead of silently dropping the batch
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while handing rows to the consumer", e);
+                }
+            }
+        }
+
+        void flush() throws InterruptedException {
+            if (!batch.isEmpty()) {
+                put(batches, batch, cancelled);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+    }
+
+    private static void put(BlockingQueue<List<?>> batches, List<?> batch, AtomicBoolean cancelled)
+            throws InterruptedException {
+        while (!cancelled.get()) {
+            if (batches.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Hands over END_OF_ROWS regardless of interrupts; the interrupt status is restored afterwards
+     */
+    private static void putTerminal(BlockingQueue<List<?>> batches, AtomicBoolean cancelled) {
+        boolean interrupted = Thread.interrupted();
+        try {
+            while (!cancelled.get()) {
+                try {
+                    if (batches.offer(END_OF_ROWS, 100, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
+
+// 2. Configuration Example
+/*
+# application.properties
+product.services.partitioned.enabled=false   # streaming is only used without partitioned loading
+product.services.streaming.enabled=true
+product.services.jdbc.fetch-size=5000
+product.services.streaming.batch-size=1000
+product.services.streaming.queue-capacity=8
+*/
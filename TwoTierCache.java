@@ -0,0 +1,269 @@
+// 1. Two-Tier Cache Manager (Caffeine L1 in front of the Redis L2)
+/**
+ * CacheManager that puts a size-bounded, on-heap Caffeine cache (L1) in front of every
+ * Redis-backed cache (L2). Hot reads are answered from the JVM; writes and evictions go to
+ * Redis first and are then broadcast over pub/sub so the other nodes drop their L1 copy.
+ *
+ * The L1 TTL is never longer than the Redis TTL of the same cache.
+ *
+ * Loads through get(key, Callable) (@Cacheable(sync = true)) are coalesced per JVM and, optionally,
+ * across nodes. The loader is only ever run on the calling thread - it is bound to that request's
+ * method invocation. Refreshing ahead of expiry is done by CacheRefreshAheadScheduler through
+ * PreloadableService.refreshCache(), not here.
+ */
+public class TwoTierCacheManager implements CacheManager {
+    private static final Logger logger = LoggerFactory.getLogger(TwoTierCacheManager.class);
+
+    public static final String INVALIDATION_CHANNEL = "cache:invalidation";
+    static final String ALL_KEYS = "*";
+
+    private final RedisCacheManager redisCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final long maxEntries;
+    private final Duration l1Ttl;
+    // Optional cross-node coalescing of cache loads (null = per JVM only)
+    private final DistributedSingleFlight distributedSingleFlight;
+
+    // Identifies this JVM so it can ignore its own invalidation messages
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(RedisCacheManager redisCacheManager, StringRedisTemplate redisTemplate,
+                               long maxEntries, Duration l1Ttl, DistributedSingleFlight distributedSingleFlight) {
+        this.redisCacheManager = redisCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.maxEntries = maxEntries;
+        this.l1Ttl = l1Ttl;
+        this.distributedSingleFlight = distributedSingleFlight;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoTierCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        RedisCache redisCache = (RedisCache) redisCacheManager.getCache(name);
+        if (redisCache == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> createCache(redisCache));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+
+    private TwoTierCache createCache(RedisCache redisCache) {
+        Duration redisTtl = redisCache.getCacheConfiguration().getTtl();
+        Duration ttl = (redisTtl.isZero() || redisTtl.compareTo(l1Ttl) > 0) ? l1Ttl : redisTtl;
+
+        com.github.benmanes.caffeine.cache.Cache<String, Cache.ValueWrapper> l1 = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+
+        logger.info("Near cache enabled for '{}' (max entries: {}, L1 TTL: {}, Redis TTL: {})",
+            redisCache.getName(), maxEntries, ttl, redisTtl);
+        return new TwoTierCache(redisCache, l1, this);
+    }
+
+    /**
+     * Runs a cache loader so that only one node loads a given key at a time
+     */
+    <T> T loadAcrossNodes(String cacheName, String key, Supplier<T> lookup, Callable<T> loader) throws Exception {
+        if (distributedSingleFlight == null) {
+            return loader.call();
+        }
+        // Never loads while another node holds the lock. Long loads (the complete dataset) do not come
+        // through here on the request path - see ProductServicesServiceImpl.getCompleteData
+        return distributedSingleFlight.load(cacheName + "::" + key, lookup, loader);
+    }
+
+    /**
+     * Tells the other nodes to drop an L1 entry (or all entries when key is ALL_KEYS)
+     */
+    void publishInvalidation(String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, nodeId + "|" + cacheName + "|" + key);
+        } catch (Exception e) {
+            // L1 TTL still bounds staleness on the other nodes
+            logger.warn("Failed to publish near cache invalidation for {}::{} - {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    /**
+     * Handles an invalidation message published by another node
+     */
+    public void onInvalidation(String message) {
+        String[] parts = message.split("\\|", 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        TwoTierCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (ALL_KEYS.equals(parts[2])) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(parts[2]);
+        }
+        logger.debug("Near cache invalidated {}::{} (from node {})", parts[1], parts[2], parts[0]);
+    }
+}
+
+// 2. Two-Tier Cache
+public class TwoTierCache implements Cache {
+
+    private final RedisCache l2;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Cache.ValueWrapper> l1;
+    private final TwoTierCacheManager manager;
+    // One in-flight load per key in this JVM (used by @Cacheable(sync = true))
+    private final SingleFlight<String, ValueWrapper> loads = new SingleFlight<>();
+
+    TwoTierCache(RedisCache l2, com.github.benmanes.caffeine.cache.Cache<String, Cache.ValueWrapper> l1,
+                 TwoTierCacheManager manager) {
+        this.l2 = l2;
+        this.l1 = l1;
+        this.manager = manager;
+    }
+
+    // L1 keys use the same string form the Redis key is derived from (see CustomKeyGenerator)
+    private static String l1Key(Object key) {
+        return String.valueOf(key);
+    }
+
+    @Override
+    public String getName() {
+        return l2.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return l2;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = l1Key(key);
+        ValueWrapper local = l1.getIfPresent(localKey);
+        if (local != null) {
+            return local;
+        }
+        ValueWrapper remote = l2.get(key);
+        if (remote != null) {
+            l1.put(localKey, new SimpleValueWrapper(remote.get()));
+        }
+        return remote;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = l1Key(key);
+        ValueWrapper local = l1.getIfPresent(localKey);
+        if (local != null) {
+            return (T) local.get();
+        }
+        try {
+            ValueWrapper loaded = loads.load(localKey, () -> {
+                ValueWrapper remote = l2.get(key);
+                if (remote == null) {
+                    remote = manager.loadAcrossNodes(getName(), localKey, () -> l2.get(key), () -> {
+                        Object value = valueLoader.call();
+                        l2.put(key, value);
+                        return new SimpleValueWrapper(value);
+                    });
+                }
+                l1.put(localKey, new SimpleValueWrapper(remote.get()));
+                return remote;
+            });
+            return (T) loaded.get();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        l2.put(key, value);
+        String localKey = l1Key(key);
+        l1.put(localKey, new SimpleValueWrapper(value));
+        manager.publishInvalidation(getName(), localKey);
+    }
+
+    @Override
+    public void evict(Object key) {
+        l2.evict(key);
+        String localKey = l1Key(key);
+        l1.invalidate(localKey);
+        manager.publishInvalidation(getName(), localKey);
+    }
+
+    @Override
+    public void clear() {
+        l2.clear();
+        l1.invalidateAll();
+        manager.publishInvalidation(getName(), TwoTierCacheManager.ALL_KEYS);
+    }
+
+    void evictLocal(String localKey) {
+        l1.invalidate(localKey);
+    }
+
+    void clearLocal() {
+        l1.invalidateAll();
+    }
+
+    public CacheStats getLocalStats() {
+        return l1.stats();
+    }
+}
+
+// 3. Invalidation Listener Configuration
+@Configuration
+@ConditionalOnProperty(name = "cache.near.enabled", havingValue = "true", matchIfMissing = true)
+public class NearCacheInvalidationConfig {
+
+    @Bean
+    public RedisMessageListenerContainer nearCacheInvalidationContainer(RedisConnectionFactory connectionFactory,
+                                                                        CacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        if (cacheManager instanceof TwoTierCacheManager) {
+            TwoTierCacheManager twoTierCacheManager = (TwoTierCacheManager) cacheManager;
+            container.addMessageListener(
+                (message, pattern) -> twoTierCacheManager.onInvalidation(
+                    new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(TwoTierCacheManager.INVALIDATION_CHANNEL));
+        }
+        return container;
+    }
+}
+
+// 4. Dependency and Configuration Example
+/*
+<dependency>
+    <groupId>com.github.ben-manes.caffeine</groupId>
+    <artifactId>caffeine</artifactId>
+</dependency>
+
+# application.properties
+cache.near.enabled=true
+cache.near.max-entries=500
+cache.near.ttl=PT5M     # capped at the Redis TTL of each cache
+*/